@@ -0,0 +1,112 @@
+package network.akila.surveyor.bench;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import network.akila.surveyor.model.Poll;
+import network.akila.surveyor.model.Vote;
+import network.akila.surveyor.persistence.DatabaseProvider;
+import network.akila.surveyor.persistence.SchemaManager;
+import network.akila.surveyor.persistence.dao.PollDAO;
+import network.akila.surveyor.persistence.dao.PollOptionDAO;
+import network.akila.surveyor.persistence.dao.VoteDAO;
+import network.akila.surveyor.persistence.enums.DbType;
+import network.akila.surveyor.service.PollService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * A seeded SQLite database with the plugin's DAOs and service on top.
+ */
+final class BenchDatabase implements AutoCloseable {
+
+    static final List<String> OPTIONS = List.of("A", "B", "C", "D");
+
+    final DatabaseProvider provider;
+    final PollDAO polls;
+    final VoteDAO votes;
+    final PollService service;
+    final long[] pollIds;
+    /**
+     * Poll id and player of existing votes, for lookups that hit.
+     */
+    final long[] votedPoll;
+    final UUID[] votedPlayer;
+
+    private final Path dir;
+
+    /**
+     * @param storage {@code memory} for an in-memory database on one connection that serves
+     *                reads and writes, {@code file} for a WAL file in a temp dir with the
+     *                plugin's writer and reader pools. With more than one thread only
+     *                {@code file} runs in parallel; {@code memory} measures the same work
+     *                queued on its single connection.
+     */
+    BenchDatabase(String storage, int pollCount, int voteCount) throws IOException {
+        if ("file".equals(storage)) {
+            dir = Files.createTempDirectory("surveyor-bench");
+            provider = DatabaseProvider.forSqlite(dir, "bench.db");
+        } else {
+            dir = null;
+            // a shared-cache database locks whole tables and fails with SQLITE_LOCKED under
+            // concurrent writers, so the database lives on one connection that is never retired
+            HikariConfig cfg = new HikariConfig();
+            cfg.setJdbcUrl("jdbc:sqlite:file:bench-" + UUID.randomUUID() + "?mode=memory");
+            cfg.setPoolName("Surveyor-bench");
+            cfg.setMaximumPoolSize(1);
+            cfg.setMinimumIdle(1);
+            cfg.setIdleTimeout(0);
+            cfg.setMaxLifetime(0);
+            cfg.addDataSourceProperty("foreign_keys", "true");
+            HikariDataSource pool = new HikariDataSource(cfg);
+            provider = new DatabaseProvider(DbType.SQLITE, pool, pool);
+        }
+        new SchemaManager(provider).migrate();
+
+        polls = new PollDAO(provider);
+        votes = new VoteDAO(provider);
+        service = new PollService(polls, new PollOptionDAO(provider), votes);
+
+        pollIds = new long[pollCount];
+        Instant closes = Instant.now().plusSeconds(86_400);
+        for (int i = 0; i < pollCount; i++) {
+            Poll p = polls.createPoll("Benchmark poll " + i, closes, OPTIONS).join();
+            pollIds[i] = p.getId();
+        }
+
+        votedPoll = new long[voteCount];
+        votedPlayer = new UUID[voteCount];
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        Instant now = Instant.now();
+        for (int i = 0; i < voteCount; i++) {
+            votedPoll[i] = pollIds[i % pollCount];
+            votedPlayer[i] = UUID.randomUUID();
+            pending.add(votes.upsertVote(new Vote(votedPoll[i], votedPlayer[i], i % OPTIONS.size(), now)));
+            if (pending.size() >= 10_000) {
+                CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+                pending.clear();
+            }
+        }
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+    }
+
+    @Override
+    public void close() throws IOException {
+        votes.close();
+        provider.close();
+        if (dir == null) return;
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path f : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(f);
+            }
+        }
+    }
+}
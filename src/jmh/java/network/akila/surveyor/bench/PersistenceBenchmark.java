@@ -0,0 +1,83 @@
+package network.akila.surveyor.bench;
+
+import network.akila.surveyor.model.Poll;
+import network.akila.surveyor.model.Vote;
+import network.akila.surveyor.model.VoteResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and latency of the vote and poll paths against SQLite.
+ * <p>
+ * Thread count is set with {@code -Djmh.threads=N} (JMH's {@code -t}).
+ * Sample-time mode reports p50/p90/p99 latencies alongside throughput.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersistenceBenchmark {
+
+    @Param({"memory", "file"})
+    public String storage;
+
+    @Param({"10", "100"})
+    public int polls;
+
+    @Param({"10000", "100000"})
+    public int votes;
+
+    private BenchDatabase db;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        db = new BenchDatabase(storage, polls, votes);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        db.close();
+    }
+
+    private long randomPoll() {
+        return db.pollIds[ThreadLocalRandom.current().nextInt(db.pollIds.length)];
+    }
+
+    private int randomOption() {
+        return ThreadLocalRandom.current().nextInt(BenchDatabase.OPTIONS.size());
+    }
+
+    @Benchmark
+    public void voteDaoUpsert() {
+        db.votes.upsertVote(new Vote(randomPoll(), UUID.randomUUID(), randomOption(), Instant.now())).join();
+    }
+
+    @Benchmark
+    public boolean voteDaoHasVoted() {
+        int i = ThreadLocalRandom.current().nextInt(db.votedPoll.length);
+        return db.votes.hasVoted(db.votedPoll[i], db.votedPlayer[i]).join();
+    }
+
+    @Benchmark
+    public VoteResult pollServiceVote() {
+        return db.service.vote(randomPoll(), UUID.randomUUID(), randomOption()).join();
+    }
+
+    @Benchmark
+    public int[] pollServiceOptionCounts() {
+        return db.service.optionCounts(randomPoll()).join();
+    }
+
+    @Benchmark
+    public List<Poll> pollDaoFindAll() {
+        return db.polls.findAll().join();
+    }
+}
@@ -3,19 +3,26 @@ package network.akila.surveyor;
 import com.zaxxer.hikari.HikariDataSource;
 import fr.mrmicky.fastinv.FastInvManager;
 import network.akila.surveyor.command.PollCommands;
+import network.akila.surveyor.gui.PollCardCache;
 import network.akila.surveyor.config.ConfigBootstrap;
 import network.akila.surveyor.listener.ChatOnceListener;
+import network.akila.surveyor.metrics.Metrics;
 import network.akila.surveyor.persistence.DatabaseProvider;
+import network.akila.surveyor.persistence.SchemaManager;
 import network.akila.surveyor.persistence.dao.PollDAO;
 import network.akila.surveyor.persistence.dao.PollOptionDAO;
 import network.akila.surveyor.persistence.dao.VoteDAO;
 import network.akila.surveyor.persistence.enums.DbType;
+import network.akila.surveyor.persistence.enums.ExecutorMode;
 import network.akila.surveyor.service.ConfigService;
 import network.akila.surveyor.service.ConfigService.ConfigFile;
+import network.akila.surveyor.service.PlaceholderCache;
 import network.akila.surveyor.service.PollPlaceholders;
 import network.akila.surveyor.service.PollService;
+import network.akila.surveyor.service.PollSnapshotter;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.time.Duration;
 import java.util.logging.Logger;
 
 @SuppressWarnings("unused")
@@ -25,6 +32,9 @@ public final class Surveyor extends JavaPlugin {
     private DatabaseProvider databaseProvider;
     private ConfigService configService;
     private PollService pollService;
+    private VoteDAO voteDAO;
+    private PollSnapshotter snapshotter;
+    private final PollCardCache pollCardCache = new PollCardCache();
 
     public static Surveyor getInstance() {
         return instance;
@@ -51,6 +61,12 @@ public final class Surveyor extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        if (snapshotter != null) {
+            snapshotter.stop();
+        }
+        if (voteDAO != null) {
+            voteDAO.close();
+        }
         if (databaseProvider != null) {
             databaseProvider.close();
         }
@@ -59,55 +75,122 @@ public final class Surveyor extends JavaPlugin {
     private void initDatabase() {
         ConfigFile cfg = configService.file("config.yml");
         final String typeStr = cfg.getString("database.type", "SQLITE").toUpperCase();
-        final DbType dbType = DbType.valueOf(typeStr);
-
-        switch (dbType) {
-            case SQLITE: {
-                String fileName = cfg.getString("database.sqlite.file", "polls.db");
-                this.databaseProvider = DatabaseProvider.forSqlite(getDataFolder().toPath(), fileName);
-                break;
-            }
-            case MYSQL: {
-                String host = cfg.getString("database.mysql.host", "localhost");
-                int port = cfg.getInt("database.mysql.port", 3306);
-                String database = cfg.getString("database.mysql.database", "surveyor");
-                String user = cfg.getString("database.mysql.user", "root");
-                String pass = cfg.getString("database.mysql.password", "");
-                String params = cfg.getString("database.mysql.params", "useSSL=true&useUnicode=true&characterEncoding=utf8");
-                this.databaseProvider = DatabaseProvider.forMysql(host, port, database, user, pass, params);
-                break;
-            }
-            default:
-                throw new IllegalStateException("Unsupported DbType: " + dbType);
-        }
+        this.databaseProvider = openDatabase(DbType.valueOf(typeStr));
 
         HikariDataSource dataSource = databaseProvider.getDataSource();
         if (dataSource == null) {
             throw new IllegalStateException("DataSource was not initialized");
         }
 
+        int schemaVersion = new SchemaManager(databaseProvider).migrate();
+        getLogger().info("Database schema at version " + schemaVersion + ".");
+
         DbType type = databaseProvider.getDbType();
         PollDAO pollDAO = new PollDAO(databaseProvider);
         PollOptionDAO pollOptionDAO = new PollOptionDAO(databaseProvider);
-        VoteDAO voteDAO = new VoteDAO(databaseProvider);
+        int batchSize = cfg.getInt("database.batching.max-batch-size", VoteDAO.DEFAULT_BATCH_SIZE);
+        long lingerMs = cfg.getLong("database.batching.linger-ms", VoteDAO.DEFAULT_LINGER_MS);
+        this.voteDAO = new VoteDAO(databaseProvider, batchSize, lingerMs);
 
         pollService = new PollService(pollDAO, pollOptionDAO, voteDAO);
+        pollService.addListener(pollCardCache);
+        pollService.loadIds().whenComplete((n, ex) -> {
+            if (ex != null) getLogger().warning("Failed to load poll ids: " + ex.getMessage());
+        });
+        pollService.removeLeftoverHidden().whenComplete((n, ex) -> {
+            if (ex != null) getLogger().warning("Failed to remove leftover hidden polls: " + ex.getMessage());
+            else if (n > 0) getLogger().info("Removed " + n + " hidden polls left over from an earlier run.");
+        });
 
         ChatOnceListener.init(this);
         new PollCommands(this, pollService);
 
+        long logMinutes = cfg.getLong("metrics.log-interval-minutes", 5);
+        if (logMinutes > 0) {
+            long period = logMinutes * 60 * 20;
+            getServer().getScheduler().runTaskTimerAsynchronously(this,
+                    () -> getLogger().info(statsLine()), period, period);
+        }
+
         if (getServer().getPluginManager().getPlugin("PlaceholderAPI") != null) {
-            new PollPlaceholders(pollService).register();
+            snapshotter = new PollSnapshotter(pollService,
+                    Duration.ofDays(cfg.getLong("placeholders.recent-days", PollSnapshotter.DEFAULT_RECENT.toDays())));
+            snapshotter.start(this, cfg.getLong("placeholders.refresh-ticks", PollSnapshotter.DEFAULT_REFRESH_TICKS));
+            PlaceholderCache cache = new PlaceholderCache(
+                    cfg.getLong("placeholders.cache.ttl-ms", PlaceholderCache.DEFAULT_TTL_MS),
+                    cfg.getInt("placeholders.cache.max-entries", PlaceholderCache.DEFAULT_MAX_ENTRIES)
+            );
+            new PollPlaceholders(pollService, snapshotter, cache).register();
             getLogger().info("Surveyor poll placeholders registered with PlaceholderAPI.");
         } else {
             getLogger().warning("PlaceholderAPI not found! Poll placeholders will be disabled.");
         }
     }
 
+    /**
+     * Opens a database of the given type using the connection settings in config.yml.
+     * The caller owns the returned provider and must close it.
+     */
+    public DatabaseProvider openDatabase(DbType dbType) {
+        ConfigFile cfg = configService.file("config.yml");
+        final ExecutorMode executorMode = cfg.getEnum("database.executor", ExecutorMode.class, ExecutorMode.BOUNDED);
+
+        switch (dbType) {
+            case SQLITE: {
+                String fileName = cfg.getString("database.sqlite.file", "polls.db");
+                DatabaseProvider.SqliteTuning defaults = DatabaseProvider.SqliteTuning.defaults();
+                DatabaseProvider.SqliteTuning tuning = new DatabaseProvider.SqliteTuning(
+                        cfg.getBool("database.sqlite.wal", defaults.wal()),
+                        cfg.getInt("database.sqlite.read-pool-size", defaults.readPoolSize()),
+                        cfg.getInt("database.sqlite.busy-timeout-ms", defaults.busyTimeoutMs()),
+                        cfg.getInt("database.sqlite.cache-size-kb", defaults.cacheSizeKb()),
+                        cfg.getLong("database.sqlite.mmap-size-mb", defaults.mmapSizeBytes() / (1024 * 1024)) * 1024 * 1024
+                );
+                return DatabaseProvider.forSqlite(getDataFolder().toPath(), fileName, tuning, executorMode);
+            }
+            case MYSQL: {
+                String host = cfg.getString("database.mysql.host", "localhost");
+                int port = cfg.getInt("database.mysql.port", 3306);
+                String database = cfg.getString("database.mysql.database", "surveyor");
+                String user = cfg.getString("database.mysql.user", "root");
+                String pass = cfg.getString("database.mysql.password", "");
+                String params = cfg.getString("database.mysql.params", "useSSL=true&useUnicode=true&characterEncoding=utf8");
+                return DatabaseProvider.forMysql(host, port, database, user, pass, params, executorMode);
+            }
+            default:
+                throw new IllegalStateException("Unsupported DbType: " + dbType);
+        }
+    }
+
+    private String statsLine() {
+        StringBuilder sb = new StringBuilder("Stats: ");
+        for (DatabaseProvider.PoolStats pool : databaseProvider.getPoolStats()) {
+            sb.append(pool.name()).append(' ').append(pool.active()).append('/').append(pool.total())
+                    .append(" active, ").append(pool.waiting()).append(" waiting; ");
+        }
+        sb.append("db queue ").append(databaseProvider.getQueueDepth()).append("; ").append(Metrics.summary());
+        return sb.toString();
+    }
+
+    /**
+     * The database the plugin is running on.
+     */
+    public DatabaseProvider getDatabaseProvider() {
+        return databaseProvider;
+    }
+
+    public VoteDAO getVoteDAO() {
+        return voteDAO;
+    }
+
     public PollService getPollService() {
         return pollService;
     }
 
+    public PollCardCache getPollCardCache() {
+        return pollCardCache;
+    }
+
     public ConfigService.ConfigFile menus() {
         return configService.file(ConfigBootstrap.MENUS_YML);
     }
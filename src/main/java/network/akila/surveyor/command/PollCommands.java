@@ -4,16 +4,29 @@ import net.kyori.adventure.text.Component;
 import network.akila.surveyor.Surveyor;
 import network.akila.surveyor.gui.ActivePollsView;
 import network.akila.surveyor.gui.CreatePollWizard;
+import network.akila.surveyor.metrics.Metrics;
+import network.akila.surveyor.metrics.Timer;
+import network.akila.surveyor.model.Poll;
 import network.akila.surveyor.model.PollOption;
+import network.akila.surveyor.persistence.BatchWriter;
+import network.akila.surveyor.persistence.DatabaseProvider;
+import network.akila.surveyor.persistence.StorageMigrator;
+import network.akila.surveyor.persistence.enums.DbType;
 import network.akila.surveyor.service.ConfigService;
+import network.akila.surveyor.service.PollExporter;
 import network.akila.surveyor.service.PollService;
+import network.akila.surveyor.service.VoteBenchmark;
 import network.akila.surveyor.util.DurationParser;
-import network.akila.surveyor.util.Utils;
+import network.akila.surveyor.util.MiniTemplate;
+import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.incendo.cloud.bukkit.CloudBukkitCapabilities;
 import org.incendo.cloud.execution.ExecutionCoordinator;
 import org.incendo.cloud.paper.LegacyPaperCommandManager;
+import org.incendo.cloud.parser.flag.CommandFlag;
+import org.incendo.cloud.parser.standard.EnumParser;
+import org.incendo.cloud.parser.standard.IntegerParser;
 import org.incendo.cloud.parser.standard.LongParser;
 import org.incendo.cloud.parser.standard.StringParser;
 import org.incendo.cloud.suggestion.Suggestion;
@@ -21,27 +34,77 @@ import org.incendo.cloud.suggestion.SuggestionProvider;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static network.akila.surveyor.util.MiniTemplate.text;
 
 /**
  * All poll commands.
  */
 public final class PollCommands {
 
+    private final Surveyor plugin;
     private final PollService service;
+    private final PollExporter exporter;
+    private final long timeoutMs;
+    private final AtomicBoolean exporting = new AtomicBoolean();
+    private final AtomicBoolean migrating = new AtomicBoolean();
+    private final AtomicBoolean benchmarking = new AtomicBoolean();
     private final LegacyPaperCommandManager<CommandSender> manager;
 
-    private final String msgOnlyPlayers;
-    private final String msgOnlyPlayersCreate;
-    private final String msgInvalidDuration;
-    private final String msgNotFound;
-    private final String msgClosedOk;
-    private final String msgRemovedOk;
-    private final String msgResultsHeader;
-    private final String msgResultsRow;
+    private final MiniTemplate msgOnlyPlayers;
+    private final MiniTemplate msgOnlyPlayersCreate;
+    private final MiniTemplate msgInvalidDuration;
+    private final MiniTemplate msgNotFound;
+    private final MiniTemplate msgClosedOk;
+    private final MiniTemplate msgRemovedOk;
+    private final MiniTemplate msgResultsHeader;
+    private final MiniTemplate msgResultsRow;
+    private final MiniTemplate msgTimeout;
+    private final MiniTemplate msgExportFormat;
+    private final MiniTemplate msgExportBusy;
+    private final MiniTemplate msgMigrateSame;
+    private final MiniTemplate msgStatsHeader;
+    private final MiniTemplate msgStatsPool;
+    private final MiniTemplate msgStatsExecutor;
+    private final MiniTemplate msgStatsBatch;
+    private final MiniTemplate msgStatsTimer;
+    private final MiniTemplate msgStatsCounter;
+    private final MiniTemplate msgStatsEmpty;
+    private final MiniTemplate msgStatsBenchmark;
+    private final MiniTemplate msgBenchmarkBusy;
+    private final MiniTemplate msgBenchmarkStarted;
+    private final MiniTemplate msgBenchmarkThroughput;
+    private final MiniTemplate msgBenchmarkLatency;
+    private final MiniTemplate msgBenchmarkPool;
+    private final MiniTemplate msgMigrateBusy;
+    private final MiniTemplate msgMigrateStarted;
+    private final MiniTemplate msgMigratePrune;
+    private final MiniTemplate msgMigrateProgress;
+    private final MiniTemplate msgMigrateTable;
+    private final MiniTemplate msgMigrateDone;
+    private final MiniTemplate msgMigrateMismatch;
+    private final MiniTemplate msgMigratePruned;
+    private final MiniTemplate msgExportStarted;
+    private final MiniTemplate msgExportProgress;
+    private final MiniTemplate msgExportDone;
+    private final MiniTemplate msgError;
+
+    private static final int MAX_ID_SUGGESTIONS = 50;
+    private static final String ADMIN_PERMISSION = "surveyor.admin";
+    private static final Duration MIGRATE_DRAIN_TIMEOUT = Duration.ofSeconds(30);
+    private static final int DEFAULT_BENCHMARK_VOTES = 1_000;
+    private static final int DEFAULT_BENCHMARK_CONCURRENCY = 8;
+    private static final long DEFAULT_TIMEOUT_MS = 5_000L;
 
     private static final List<String> DURATION_SAMPLES =
             List.of("15m", "30m", "45m", "1h", "2h", "6h", "12h", "1d", "2d");
@@ -53,26 +116,76 @@ public final class PollCommands {
                             .toList()
             );
 
+    private static final SuggestionProvider<CommandSender> FORMAT_PROVIDER =
+            (ctx, input) -> CompletableFuture.completedFuture(
+                    Arrays.stream(PollExporter.Format.values())
+                            .map(f -> Suggestion.suggestion(f.extension()))
+                            .toList()
+            );
 
     public PollCommands(final Surveyor plugin, final PollService service) {
+        this.plugin = Objects.requireNonNull(plugin);
         this.service = Objects.requireNonNull(service);
+        this.exporter = new PollExporter(service, plugin.getDataFolder().toPath().resolve("exports"));
+        this.timeoutMs = plugin.config().getLong("commands.timeout-ms", DEFAULT_TIMEOUT_MS);
         ConfigService.ConfigFile messages = Surveyor.getInstance().messages();
 
         // messages.yml
-        this.msgOnlyPlayers = messages.getString("cmd.only_players", "<red>Only players can use this.</red>");
-        this.msgOnlyPlayersCreate = messages.getString("cmd.only_players_create", "<red>Only players can create polls.</red>");
-        this.msgInvalidDuration = messages.getString("cmd.invalid_duration", "<red>Invalid duration:</red> <white>{duration}</white>");
-        this.msgNotFound = messages.getString("cmd.not_found", "<red>Poll #{id} not found.</red>");
-        this.msgClosedOk = messages.getString("cmd.closed_ok", "<green>Closed poll #{id}.</green>");
-        this.msgRemovedOk = messages.getString("cmd.removed_ok", "<green>Removed poll #{id}.</green>");
-        this.msgResultsHeader = messages.getString("cmd.results.header",
-                "<aqua><b>Results for poll #{id}</b></aqua> <gray>-</gray> <white>{question}</white>");
-        this.msgResultsRow = messages.getString("cmd.results.row",
-                "<gray>-</gray> <white>{text}</white><gray>:</gray> <green>{count}</green>");
-
+        this.msgOnlyPlayers = MiniTemplate.of(messages.getString("cmd.only_players", "<red>Only players can use this.</red>"));
+        this.msgOnlyPlayersCreate = MiniTemplate.of(messages.getString("cmd.only_players_create", "<red>Only players can create polls.</red>"));
+        this.msgInvalidDuration = MiniTemplate.of(messages.getString("cmd.invalid_duration", "<red>Invalid duration:</red> <white>{duration}</white>"));
+        this.msgNotFound = MiniTemplate.of(messages.getString("cmd.not_found", "<red>Poll #{id} not found.</red>"));
+        this.msgClosedOk = MiniTemplate.of(messages.getString("cmd.closed_ok", "<green>Closed poll #{id}.</green>"));
+        this.msgRemovedOk = MiniTemplate.of(messages.getString("cmd.removed_ok", "<green>Removed poll #{id}.</green>"));
+        this.msgResultsHeader = MiniTemplate.of(messages.getString("cmd.results.header",
+                "<aqua><b>Results for poll #{id}</b></aqua> <gray>-</gray> <white>{question}</white>"));
+        this.msgResultsRow = MiniTemplate.of(messages.getString("cmd.results.row",
+                "<gray>-</gray> <white>{text}</white><gray>:</gray> <green>{count}</green>"));
+        this.msgTimeout = MiniTemplate.of(messages.getString("cmd.timeout", "<red>The server took too long to answer. Try again.</red>"));
+        this.msgError = MiniTemplate.of(messages.getString("cmd.error", "<red>Something went wrong. Check the console.</red>"));
+        this.msgExportFormat = MiniTemplate.of(messages.getString("cmd.export.invalid_format",
+                "<red>Unknown format:</red> <white>{format}</white> <gray>(csv, ndjson)</gray>"));
+        this.msgExportBusy = MiniTemplate.of(messages.getString("cmd.export.busy", "<red>An export is already running.</red>"));
+        this.msgExportStarted = MiniTemplate.of(messages.getString("cmd.export.started",
+                "<gray>Exporting poll #{id} ({total} votes) as {format}...</gray>"));
+        this.msgExportProgress = MiniTemplate.of(messages.getString("cmd.export.progress", "<gray>Exported {rows} / {total} votes...</gray>"));
+        this.msgStatsHeader = MiniTemplate.of(messages.getString("cmd.stats.header", "<aqua><b>Surveyor stats</b></aqua>"));
+        this.msgStatsPool = MiniTemplate.of(messages.getString("cmd.stats.pool", "<gray>Pool</gray> <white>{pool}</white><gray>:</gray> <white>{active}</white> <gray>active,</gray> <white>{idle}</white> <gray>idle,</gray> <white>{waiting}</white> <gray>waiting of</gray> <white>{total}</white>"));
+        this.msgStatsExecutor = MiniTemplate.of(messages.getString("cmd.stats.executor", "<gray>DB executor:</gray> <white>{queued}</white> <gray>queued,</gray> <white>{running}</white> <gray>running</gray>"));
+        this.msgStatsBatch = MiniTemplate.of(messages.getString("cmd.stats.batch", "<gray>Batch writer</gray> <white>{name}</white><gray>:</gray> <white>{rows}</white> <gray>rows and</gray> <white>{flushes}</white> <gray>flushes queued</gray>"));
+        this.msgStatsTimer = MiniTemplate.of(messages.getString("cmd.stats.timer", "<gray>-</gray> <white>{name}</white> <gray>{count}x ({failures} failed), avg</gray> <white>{avg}ms</white> <gray>p50</gray> <white>{p50}</white> <gray>p95</gray> <white>{p95}</white> <gray>p99</gray> <white>{p99}</white> <gray>max</gray> <white>{max}</white>"));
+        this.msgStatsCounter = MiniTemplate.of(messages.getString("cmd.stats.counter", "<gray>-</gray> <white>{name}</white><gray>:</gray> <white>{value}</white>"));
+        this.msgStatsEmpty = MiniTemplate.of(messages.getString("cmd.stats.empty", "<gray>No activity recorded yet.</gray>"));
+        this.msgStatsBenchmark = MiniTemplate.of(messages.getString("cmd.stats.benchmark",
+                "<yellow>dao.* timers and pool stats include {votes} benchmark votes; vote counters do not.</yellow>"));
+        this.msgBenchmarkBusy = MiniTemplate.of(messages.getString("cmd.benchmark.busy", "<red>A benchmark is already running.</red>"));
+        this.msgBenchmarkStarted = MiniTemplate.of(messages.getString("cmd.benchmark.started",
+                "<gray>Casting {votes} test votes on {db}, {concurrency} at a time...</gray>"));
+        this.msgBenchmarkThroughput = MiniTemplate.of(messages.getString("cmd.benchmark.throughput",
+                "<aqua><b>Throughput</b></aqua> <white>{throughput} votes/s</white> <gray>({accepted}/{votes} accepted in {seconds}s)</gray>"));
+        this.msgBenchmarkLatency = MiniTemplate.of(messages.getString("cmd.benchmark.latency",
+                "<aqua><b>Latency</b></aqua> <gray>p50</gray> <white>{p50}ms</white> <gray>p95</gray> <white>{p95}ms</white> <gray>p99</gray> <white>{p99}ms</white> <gray>max</gray> <white>{max}ms</white>"));
+        this.msgBenchmarkPool = MiniTemplate.of(messages.getString("cmd.benchmark.pool",
+                "<aqua><b>Pool wait</b></aqua> <white>{wait}ms</white> <gray>avg over {acquisitions} connections ({total}ms total)</gray>"));
+        this.msgMigrateSame = MiniTemplate.of(messages.getString("cmd.migrate.same", "<red>Source and target must be different databases.</red>"));
+        this.msgMigrateBusy = MiniTemplate.of(messages.getString("cmd.migrate.busy", "<red>A migration is already running.</red>"));
+        this.msgMigrateStarted = MiniTemplate.of(messages.getString("cmd.migrate.started", "<gray>Migrating polls from {from} to {to}. Votes and poll changes are paused until it finishes...</gray>"));
+        this.msgMigratePrune = MiniTemplate.of(messages.getString("cmd.migrate.prune",
+                "<yellow>Polls in {to} that are not in {from} will be deleted with their votes.</yellow>"));
+        this.msgMigrateProgress = MiniTemplate.of(messages.getString("cmd.migrate.progress", "<gray>{table}: {rows} rows copied...</gray>"));
+        this.msgMigrateTable = MiniTemplate.of(messages.getString("cmd.migrate.table",
+                "<gray>-</gray> <white>{table}</white><gray>: copied</gray> <white>{copied}</white><gray>, source</gray> <white>{source}</white><gray>, target</gray> <white>{target}</white>"));
+        this.msgMigrateDone = MiniTemplate.of(messages.getString("cmd.migrate.done",
+                "<green>Migration finished in {seconds}s. Set <white>database.type: {to}</white> and restart to switch.</green>"));
+        this.msgMigrateMismatch = MiniTemplate.of(messages.getString("cmd.migrate.mismatch",
+                "<yellow>Migration finished in {seconds}s, but row counts differ. Run it again to bring the target up to date; add --prune if {to} holds polls that should not be kept.</yellow>"));
+        this.msgMigratePruned = MiniTemplate.of(messages.getString("cmd.migrate.pruned", "<gray>Deleted {polls} polls from {to} that are not in {from}.</gray>"));
+        this.msgExportDone = MiniTemplate.of(messages.getString("cmd.export.done", "<green>Exported {rows} votes to <white>{file}</white>.</green>"));
+
+        // handlers run off the main thread; replies and menus are handed back to it
         this.manager = LegacyPaperCommandManager.createNative(
                 plugin,
-                ExecutionCoordinator.simpleCoordinator()
+                ExecutionCoordinator.asyncCoordinator()
         );
 
         if (manager.hasCapability(CloudBukkitCapabilities.NATIVE_BRIGADIER)) {
@@ -88,9 +201,9 @@ public final class PollCommands {
     private void registerRoot(String root) {
         SuggestionProvider<CommandSender> pollIdProvider =
                 (ctx, input) -> CompletableFuture.completedFuture(
-                        service.findAll().join().stream()
-                                .map(p -> Suggestion.suggestion(String.valueOf(p.getId())))
-                                .collect(Collectors.toList())
+                        service.suggestIds(input.peekString(), MAX_ID_SUGGESTIONS).stream()
+                                .map(id -> Suggestion.suggestion(String.valueOf(id)))
+                                .toList()
                 );
 
         // /poll
@@ -99,7 +212,7 @@ public final class PollCommands {
                         .handler(ctx -> {
                             CommandSender sender = ctx.sender();
                             if (sender instanceof Player player) {
-                                new ActivePollsView(service).open(player);
+                                onMain(() -> new ActivePollsView(service).open(player));
                             } else {
                                 sendMini(sender, msgOnlyPlayers);
                             }
@@ -110,7 +223,7 @@ public final class PollCommands {
         manager.command(
                 manager.commandBuilder(root)
                         .literal("help")
-                        .handler(ctx -> sendHelp(ctx.sender(), root))
+                        .handler(ctx -> onMain(() -> sendHelp(ctx.sender(), root)))
         );
 
         // /poll create <duration> <question...>
@@ -132,20 +245,22 @@ public final class PollCommands {
                                 duration = DurationParser.parse(durationLiteral);
                                 if (duration.isZero() || duration.isNegative()) throw new IllegalArgumentException();
                             } catch (IllegalArgumentException ex) {
-                                sendMini(sender, msgInvalidDuration.replace("{duration}", durationLiteral));
-                                sendInlineCreateUsage(sender, root);
+                                onMain(() -> {
+                                    sendMini(sender, msgInvalidDuration, text("duration", durationLiteral));
+                                    sendInlineCreateUsage(sender, root);
+                                });
                                 return;
                             }
 
                             final String question = ctx.get("question");
                             final Instant closesAt = Instant.now().plus(duration);
 
-                            new CreatePollWizard(
+                            onMain(() -> new CreatePollWizard(
                                     service,
                                     closesAt,
                                     question,
                                     poll -> new ActivePollsView(service).open(player)
-                            ).open(player);
+                            ).open(player));
                         })
         );
 
@@ -154,15 +269,12 @@ public final class PollCommands {
                 manager.commandBuilder(root)
                         .literal("close")
                         .required("pollId", LongParser.longParser(), pollIdProvider)
-                        .handler(ctx -> {
+                        .futureHandler(ctx -> {
+                            final CommandSender sender = ctx.sender();
                             final long id = ctx.get("pollId");
-                            final boolean exists = service.findAll().join().stream().anyMatch(p -> p.getId() == id);
-                            if (!exists) {
-                                sendMini(ctx.sender(), msgNotFound.replace("{id}", String.valueOf(id)));
-                                return;
-                            }
-                            service.close(id);
-                            sendMini(ctx.sender(), msgClosedOk.replace("{id}", String.valueOf(id)));
+                            return bounded(sender, service.exists(id).thenCompose(exists -> exists
+                                    ? service.close(id).thenApply(v -> reply(sender, msgClosedOk, text("id", id)))
+                                    : CompletableFuture.completedFuture(reply(sender, msgNotFound, text("id", id)))));
                         })
         );
 
@@ -171,15 +283,12 @@ public final class PollCommands {
                 manager.commandBuilder(root)
                         .literal("remove")
                         .required("pollId", LongParser.longParser(), pollIdProvider)
-                        .handler(ctx -> {
+                        .futureHandler(ctx -> {
+                            final CommandSender sender = ctx.sender();
                             final long id = ctx.get("pollId");
-                            final boolean exists = service.findAll().join().stream().anyMatch(p -> p.getId() == id);
-                            if (!exists) {
-                                sendMini(ctx.sender(), msgNotFound.replace("{id}", String.valueOf(id)));
-                                return;
-                            }
-                            service.remove(id);
-                            sendMini(ctx.sender(), msgRemovedOk.replace("{id}", String.valueOf(id)));
+                            return bounded(sender, service.exists(id).thenCompose(exists -> exists
+                                    ? service.remove(id).thenApply(v -> reply(sender, msgRemovedOk, text("id", id)))
+                                    : CompletableFuture.completedFuture(reply(sender, msgNotFound, text("id", id)))));
                         })
         );
 
@@ -188,23 +297,281 @@ public final class PollCommands {
                 manager.commandBuilder(root)
                         .literal("results")
                         .required("pollId", LongParser.longParser(), pollIdProvider)
-                        .handler(ctx -> {
+                        .futureHandler(ctx -> {
+                            final CommandSender sender = ctx.sender();
+                            final long id = ctx.get("pollId");
+                            return bounded(sender, service.find(id).thenCompose(found -> {
+                                if (found.isEmpty()) {
+                                    return CompletableFuture.completedFuture(reply(sender, msgNotFound, text("id", id)));
+                                }
+                                final Poll poll = found.get();
+                                return service.results(id).<Runnable>thenApply(counts -> () -> onMain(() -> {
+                                    send(sender, msgResultsHeader, text("id", id), text("question", poll.getQuestion()));
+                                    final List<PollOption> opts = poll.getOptions();
+                                    for (int i = 0; i < opts.size(); i++) {
+                                        send(sender, msgResultsRow,
+                                                text("text", opts.get(i).getText()),
+                                                text("count", counts.get(i)));
+                                    }
+                                }));
+                            }));
+                        })
+        );
+
+        // /poll export <pollId> [csv|ndjson]
+        manager.command(
+                manager.commandBuilder(root)
+                        .literal("export")
+                        .permission(ADMIN_PERMISSION)
+                        .required("pollId", LongParser.longParser(), pollIdProvider)
+                        .optional("format", StringParser.stringParser(), FORMAT_PROVIDER)
+                        .futureHandler(ctx -> {
+                            final CommandSender sender = ctx.sender();
                             final long id = ctx.get("pollId");
-                            service.find(id).join().ifPresentOrElse(poll -> {
-                                sendMini(ctx.sender(), msgResultsHeader
-                                        .replace("{id}", String.valueOf(id))
-                                        .replace("{question}", poll.getQuestion()));
-
-                                final List<PollOption> opts = service.options(id).join();
-                                for (int i = 0; i < opts.size(); i++) {
-                                    final int count = service.countVotes(id, i).join();
-                                    sendMini(ctx.sender(), msgResultsRow
-                                            .replace("{text}", opts.get(i).getText())
-                                            .replace("{count}", String.valueOf(count)));
+                            final String formatLiteral = ctx.getOrDefault("format", "csv");
+                            final PollExporter.Format format = PollExporter.Format.parse(formatLiteral).orElse(null);
+                            if (format == null) {
+                                sendMini(sender, msgExportFormat, text("format", formatLiteral));
+                                return CompletableFuture.completedFuture(null);
+                            }
+                            if (!exporting.compareAndSet(false, true)) {
+                                sendMini(sender, msgExportBusy);
+                                return CompletableFuture.completedFuture(null);
+                            }
+
+                            // not bounded by the command timeout: large polls take a while
+                            return reported(sender, service.exists(id).thenCompose(exists -> {
+                                if (!exists) {
+                                    sendMini(sender, msgNotFound, text("id", id));
+                                    return CompletableFuture.completedFuture(null);
+                                }
+                                return service.results(id).thenCompose(counts -> {
+                                    final String total = String.valueOf(counts.getTotal());
+                                    sendMini(sender, msgExportStarted,
+                                            text("id", id),
+                                            text("total", total),
+                                            text("format", format.extension()));
+                                    return exporter.export(id, format, rows -> sendMini(sender, msgExportProgress,
+                                            text("rows", rows),
+                                            text("total", total)));
+                                }).thenAccept(result -> result.ifPresentOrElse(
+                                        r -> sendMini(sender, msgExportDone,
+                                                text("rows", r.rows()),
+                                                text("file", plugin.getDataFolder().toPath().relativize(r.file()).toString())),
+                                        () -> sendMini(sender, msgNotFound, text("id", id))));
+                            }).whenComplete((v, ex) -> exporting.set(false)));
+                        })
+        );
+
+        // /poll migrate <from> <to> [--prune]
+        manager.command(
+                manager.commandBuilder(root)
+                        .literal("migrate")
+                        .permission(ADMIN_PERMISSION)
+                        .required("from", EnumParser.enumParser(DbType.class))
+                        .required("to", EnumParser.enumParser(DbType.class))
+                        .flag(CommandFlag.builder("prune"))
+                        .futureHandler(ctx -> {
+                            final CommandSender sender = ctx.sender();
+                            final DbType from = ctx.get("from");
+                            final DbType to = ctx.get("to");
+                            final boolean prune = ctx.flags().hasFlag("prune");
+                            if (from == to) {
+                                sendMini(sender, msgMigrateSame);
+                                return CompletableFuture.completedFuture(null);
+                            }
+                            if (!migrating.compareAndSet(false, true)) {
+                                sendMini(sender, msgMigrateBusy);
+                                return CompletableFuture.completedFuture(null);
+                            }
+                            sendMini(sender, msgMigrateStarted, text("from", from.name()), text("to", to.name()));
+                            if (prune) sendMini(sender, msgMigratePrune,
+                                    text("from", from.name()),
+                                    text("to", to.name()));
+
+                            // a long copy must not hold a DB executor thread, so it gets its own
+                            CompletableFuture<StorageMigrator.Result> run = CompletableFuture.supplyAsync(
+                                    () -> migrate(sender, from, to, prune),
+                                    task -> {
+                                        Thread t = new Thread(task, "Surveyor-migrate");
+                                        t.setDaemon(true);
+                                        t.start();
+                                    });
+                            return reported(sender, run.whenComplete((r, ex) -> migrating.set(false)).thenAccept(result -> {
+                                for (StorageMigrator.TableResult t : result.tables()) {
+                                    sendMini(sender, msgMigrateTable,
+                                            text("table", t.table()),
+                                            text("copied", t.copied()),
+                                            text("source", t.sourceRows()),
+                                            text("target", t.targetRows()));
+                                }
+                                final long pruned = result.tables().get(0).removed();
+                                if (pruned > 0) {
+                                    sendMini(sender, msgMigratePruned,
+                                            text("polls", pruned),
+                                            text("from", from.name()),
+                                            text("to", to.name()));
                                 }
-                            }, () -> sendMini(ctx.sender(), msgNotFound.replace("{id}", String.valueOf(id))));
+                                final String seconds = String.format(Locale.ROOT, "%.1f", result.took().toMillis() / 1000.0);
+                                sendMini(sender, result.verified() ? msgMigrateDone : msgMigrateMismatch,
+                                        text("seconds", seconds),
+                                        text("to", to.name()));
+                            }));
+                        })
+        );
+
+        // /poll benchmark [votes] [concurrency]
+        manager.command(
+                manager.commandBuilder(root)
+                        .literal("benchmark")
+                        .permission(ADMIN_PERMISSION)
+                        .optional("votes", IntegerParser.integerParser(1, VoteBenchmark.MAX_VOTES))
+                        .optional("concurrency", IntegerParser.integerParser(1, VoteBenchmark.MAX_CONCURRENCY))
+                        .futureHandler(ctx -> {
+                            final CommandSender sender = ctx.sender();
+                            final int votes = ctx.getOrDefault("votes", DEFAULT_BENCHMARK_VOTES);
+                            final int concurrency = ctx.getOrDefault("concurrency", DEFAULT_BENCHMARK_CONCURRENCY);
+                            if (!benchmarking.compareAndSet(false, true)) {
+                                sendMini(sender, msgBenchmarkBusy);
+                                return CompletableFuture.completedFuture(null);
+                            }
+                            final DatabaseProvider db = plugin.getDatabaseProvider();
+                            sendMini(sender, msgBenchmarkStarted,
+                                    text("votes", votes),
+                                    text("concurrency", concurrency),
+                                    text("db", db.getDbType().name()));
+
+                            return reported(sender, new VoteBenchmark(service, db).run(votes, concurrency)
+                                    .whenComplete((r, ex) -> benchmarking.set(false))
+                                    .thenAccept(r -> {
+                                        sendMini(sender, msgBenchmarkThroughput,
+                                                text("throughput", String.format(Locale.ROOT, "%.0f", r.votesPerSecond())),
+                                                text("accepted", r.accepted()),
+                                                text("votes", r.votes()),
+                                                text("seconds", String.format(Locale.ROOT, "%.2f", r.took().toNanos() / 1e9)));
+                                        sendMini(sender, msgBenchmarkLatency,
+                                                text("p50", millis(r.p50Nanos())),
+                                                text("p95", millis(r.p95Nanos())),
+                                                text("p99", millis(r.p99Nanos())),
+                                                text("max", millis(r.maxNanos())));
+                                        sendMini(sender, msgBenchmarkPool,
+                                                text("wait", String.format(Locale.ROOT, "%.3f", r.poolWait().averageMillis())),
+                                                text("total", millis(r.poolWait().waitNanos())),
+                                                text("acquisitions", r.poolWait().acquisitions()));
+                                    }));
                         })
         );
+
+        // /poll stats
+        manager.command(
+                manager.commandBuilder(root)
+                        .literal("stats")
+                        .permission(ADMIN_PERMISSION)
+                        .handler(ctx -> onMain(() -> sendStats(ctx.sender())))
+        );
+    }
+
+    private void sendStats(CommandSender sender) {
+        final DatabaseProvider db = plugin.getDatabaseProvider();
+        send(sender, msgStatsHeader);
+        for (DatabaseProvider.PoolStats pool : db.getPoolStats()) {
+            send(sender, msgStatsPool,
+                    text("pool", pool.name()),
+                    text("active", pool.active()),
+                    text("idle", pool.idle()),
+                    text("waiting", pool.waiting()),
+                    text("total", pool.total()));
+        }
+        send(sender, msgStatsExecutor, text("queued", db.getQueueDepth()), text("running", db.getActiveCount()));
+        for (BatchWriter.Stats batch : plugin.getVoteDAO().batchStats()) {
+            send(sender, msgStatsBatch,
+                    text("name", batch.name()),
+                    text("rows", batch.rows()),
+                    text("flushes", batch.flushes()));
+        }
+
+        final Map<String, Timer.Snapshot> timers = Metrics.timers();
+        final Map<String, Long> counters = Metrics.counters();
+        if (timers.isEmpty() && counters.isEmpty()) {
+            send(sender, msgStatsEmpty);
+            return;
+        }
+        timers.forEach((name, t) -> send(sender, msgStatsTimer,
+                text("name", name),
+                text("count", t.count()),
+                text("failures", t.failures()),
+                text("avg", millis(t.averageNanos())),
+                text("p50", millis(t.p50Nanos())),
+                text("p95", millis(t.p95Nanos())),
+                text("p99", millis(t.p99Nanos())),
+                text("max", millis(t.maxNanos()))));
+        counters.forEach((name, value) -> send(sender, msgStatsCounter, text("name", name), text("value", value)));
+
+        final Timer.Snapshot benchmark = timers.get(PollService.BENCHMARK_METRICS + "service.vote");
+        if (benchmark != null) {
+            send(sender, msgStatsBenchmark, text("votes", benchmark.count()));
+        }
+    }
+
+    /**
+     * Copies storage with poll writes paused, so the live side cannot change mid-copy.
+     * If the live database was the target, the service's cached ids and counts are reloaded.
+     */
+    private StorageMigrator.Result migrate(CommandSender sender, DbType from, DbType to, boolean prune) {
+        final DatabaseProvider live = plugin.getDatabaseProvider();
+        final DatabaseProvider source = from == live.getDbType() ? live : plugin.openDatabase(from);
+        DatabaseProvider target = null;
+        try {
+            target = to == live.getDbType() ? live : plugin.openDatabase(to);
+            if (!service.pauseWrites(MIGRATE_DRAIN_TIMEOUT)) {
+                throw new IllegalStateException("Poll writes did not finish within " + MIGRATE_DRAIN_TIMEOUT.toSeconds() + "s");
+            }
+            StorageMigrator.Result result = new StorageMigrator(source, target).migrate((table, rows) -> sendMini(sender, msgMigrateProgress,
+                    text("table", table),
+                    text("rows", rows)), prune);
+            if (target == live) {
+                service.reload().join();
+                plugin.getPollCardCache().invalidateAll();
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while pausing poll writes", e);
+        } finally {
+            service.resumeWrites();
+            if (source != live) source.close();
+            if (target != null && target != live) target.close();
+        }
+    }
+
+    /**
+     * Bounds a handler's work by the command timeout and reports failures to the sender.
+     * The work yields its reply instead of sending it, and the reply only runs if the work
+     * finished in time. A timed out query keeps running; its reply is dropped.
+     */
+    private CompletableFuture<Void> bounded(CommandSender sender, CompletableFuture<Runnable> work) {
+        return reported(sender, work.orTimeout(timeoutMs, TimeUnit.MILLISECONDS).thenAccept(Runnable::run));
+    }
+
+    private Runnable reply(CommandSender sender, MiniTemplate template, MiniTemplate.Slot... slots) {
+        return () -> sendMini(sender, template, slots);
+    }
+
+    /**
+     * Reports a handler's failure to the sender. The returned future always completes normally.
+     */
+    private CompletableFuture<Void> reported(CommandSender sender, CompletableFuture<?> work) {
+        return work.handle((v, ex) -> {
+            if (ex == null) return null;
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (cause instanceof TimeoutException) {
+                sendMini(sender, msgTimeout);
+            } else {
+                plugin.getLogger().warning("Poll command failed: " + cause);
+                sendMini(sender, msgError);
+            }
+            return null;
+        });
     }
 
     // Help
@@ -258,6 +625,41 @@ public final class PollCommands {
                 "Shows vote counts for each option."
         );
 
+        // /<root> export <pollId> [csv|ndjson]
+        helpEntry(sender,
+                "/" + root + " export",
+                "Export votes",
+                "/" + root + " export <pollId> [csv|ndjson]",
+                "Writes every vote to a file in plugins/Surveyor/exports."
+        );
+
+        // /<root> migrate <from> <to> [--prune]
+        helpEntry(sender,
+                "/" + root + " migrate",
+                "Copy storage",
+                "/" + root + " migrate <from> <to> [--prune]",
+                "Copies all polls between SQLITE and MYSQL, updating rows the target already has."
+                        + "<newline>Votes and poll changes are refused for the whole copy, which can take"
+                        + "<newline>minutes on millions of votes. Run it while the server is quiet."
+                        + "<newline>Polls only in the target are kept; --prune deletes them with their votes."
+        );
+
+        // /<root> benchmark [votes] [concurrency]
+        helpEntry(sender,
+                "/" + root + " benchmark",
+                "Measure voting",
+                "/" + root + " benchmark [votes] [concurrency]",
+                "Casts test votes on a hidden poll and reports latency. The test data is removed afterwards."
+        );
+
+        // /<root> stats
+        helpEntry(sender,
+                "/" + root + " stats",
+                "Show stats",
+                "/" + root + " stats",
+                "Connection pools, queue depth and latency of every database and menu operation."
+        );
+
         send(sender, "<dark_gray>────────────────────────────────────</dark_gray>");
         send(sender, "<gray>Tip:</gray> <yellow>Use short durations like 30m, 1h, 2d</yellow>");
         sendBlank(sender);
@@ -291,13 +693,32 @@ public final class PollCommands {
     }
 
     // Utils
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.2f", nanos / 1_000_000.0);
+    }
+
+    private void onMain(Runnable task) {
+        if (Bukkit.isPrimaryThread()) {
+            task.run();
+        } else {
+            Bukkit.getScheduler().runTask(plugin, task);
+        }
+    }
+
     private void sendMini(CommandSender sender, String mini) {
-        send(sender, mini);
+        onMain(() -> send(sender, mini));
     }
 
     private void send(CommandSender sender, String mini) {
-        final Component c = Utils.parse(sender instanceof Player p ? p : null, mini);
-        sender.sendMessage(c);
+        send(sender, MiniTemplate.of(mini));
+    }
+
+    private void sendMini(CommandSender sender, MiniTemplate template, MiniTemplate.Slot... slots) {
+        onMain(() -> send(sender, template, slots));
+    }
+
+    private void send(CommandSender sender, MiniTemplate template, MiniTemplate.Slot... slots) {
+        sender.sendMessage(template.render(sender instanceof Player p ? p : null, slots));
     }
 
     private void sendBlank(CommandSender sender) {
@@ -25,8 +25,14 @@ public final class ConfigBootstrap {
     // config.yml
     private static void seedCore(ConfigService.ConfigFile c) {
         c.setIfMissing("database.type", "SQLITE");
+        c.setIfMissing("database.executor", "BOUNDED");
 
         c.setIfMissing("database.sqlite.file", "polls.db");
+        c.setIfMissing("database.sqlite.wal", true);
+        c.setIfMissing("database.sqlite.read-pool-size", 4);
+        c.setIfMissing("database.sqlite.busy-timeout-ms", 5000);
+        c.setIfMissing("database.sqlite.cache-size-kb", 16384);
+        c.setIfMissing("database.sqlite.mmap-size-mb", 64);
 
         c.setIfMissing("database.mysql.host", "localhost");
         c.setIfMissing("database.mysql.port", 3306);
@@ -34,6 +40,18 @@ public final class ConfigBootstrap {
         c.setIfMissing("database.mysql.user", "root");
         c.setIfMissing("database.mysql.password", "");
         c.setIfMissing("database.mysql.params", "useSSL=true&useUnicode=true&characterEncoding=utf8");
+
+        c.setIfMissing("database.batching.max-batch-size", 64);
+        c.setIfMissing("database.batching.linger-ms", 5);
+
+        c.setIfMissing("placeholders.refresh-ticks", 600);
+        c.setIfMissing("placeholders.recent-days", 7);
+        c.setIfMissing("placeholders.cache.ttl-ms", 1000);
+        c.setIfMissing("placeholders.cache.max-entries", 10000);
+
+        c.setIfMissing("commands.timeout-ms", 5000);
+
+        c.setIfMissing("metrics.log-interval-minutes", 5);
     }
 
     // menus.yml
@@ -72,6 +90,10 @@ public final class ConfigBootstrap {
         c.setIfMissing("active-polls.empty.title", "<gray><b>No polls found</b></gray>");
         c.setIfMissing("active-polls.empty.lore", "<dark_gray>Try a different filter.</dark_gray>");
 
+        c.setIfMissing("active-polls.loading.material", "CLOCK");
+        c.setIfMissing("active-polls.loading.title", "<gray><b>Loading polls...</b></gray>");
+        c.setIfMissing("active-polls.loading.lore", "<dark_gray>One moment.</dark_gray>");
+
         c.setIfMissing("active-polls.behavior.closingSoonHours", 6);
 
         c.setIfMissing("active-polls.footer.slots.prev", 45);
@@ -257,12 +279,14 @@ public final class ConfigBootstrap {
         c.setIfMissing("vote.already", "<red>You already voted for <white>[{index}] {text}</white></red>");
         c.setIfMissing("vote.success", "<green>You voted for <white>[{index}] {text}</white></green>");
         c.setIfMissing("vote.error", "<red>Could not record your vote. Try again.</red>");
+        c.setIfMissing("vote.load_error", "<red>Could not load this poll. Try again.</red>");
         c.setIfMissing("vote.no_options", "<gray>No options</gray>");
 
         c.setIfMissing("create.custom.prompt",
                 "<gray>Type your options (comma-separated). Example: <white>Yes, No, Maybe</white>");
         c.setIfMissing("create.custom.none", "<red>No options detected. Reopening wizard…</red>");
         c.setIfMissing("create.created", "<green>Created poll <white>#{id}</white>: <white>{question}</white></green>");
+        c.setIfMissing("create.error", "<red>Could not create the poll. Try again.</red>");
 
         c.setIfMissing("cmd.only_players", "<red>Only players can use this.</red>");
         c.setIfMissing("cmd.only_players_create", "<red>Only players can create polls.</red>");
@@ -270,6 +294,43 @@ public final class ConfigBootstrap {
         c.setIfMissing("cmd.not_found", "<red>Poll #{id} not found.</red>");
         c.setIfMissing("cmd.closed_ok", "<green>Closed poll #{id}.</green>");
         c.setIfMissing("cmd.removed_ok", "<green>Removed poll #{id}.</green>");
+        c.setIfMissing("cmd.timeout", "<red>The server took too long to answer. Try again.</red>");
+        c.setIfMissing("cmd.error", "<red>Something went wrong. Check the console.</red>");
+        c.setIfMissing("cmd.export.invalid_format",
+                "<red>Unknown format:</red> <white>{format}</white> <gray>(csv, ndjson)</gray>");
+        c.setIfMissing("cmd.export.busy", "<red>An export is already running.</red>");
+        c.setIfMissing("cmd.export.started", "<gray>Exporting poll #{id} ({total} votes) as {format}...</gray>");
+        c.setIfMissing("cmd.export.progress", "<gray>Exported {rows} / {total} votes...</gray>");
+        c.setIfMissing("cmd.export.done", "<green>Exported {rows} votes to <white>{file}</white>.</green>");
+
+        c.setIfMissing("cmd.stats.header", "<aqua><b>Surveyor stats</b></aqua>");
+        c.setIfMissing("cmd.stats.pool", "<gray>Pool</gray> <white>{pool}</white><gray>:</gray> <white>{active}</white> <gray>active,</gray> <white>{idle}</white> <gray>idle,</gray> <white>{waiting}</white> <gray>waiting of</gray> <white>{total}</white>");
+        c.setIfMissing("cmd.stats.executor", "<gray>DB executor:</gray> <white>{queued}</white> <gray>queued,</gray> <white>{running}</white> <gray>running</gray>");
+        c.setIfMissing("cmd.stats.batch", "<gray>Batch writer</gray> <white>{name}</white><gray>:</gray> <white>{rows}</white> <gray>rows and</gray> <white>{flushes}</white> <gray>flushes queued</gray>");
+        c.setIfMissing("cmd.stats.timer", "<gray>-</gray> <white>{name}</white> <gray>{count}x ({failures} failed), avg</gray> <white>{avg}ms</white> <gray>p50</gray> <white>{p50}</white> <gray>p95</gray> <white>{p95}</white> <gray>p99</gray> <white>{p99}</white> <gray>max</gray> <white>{max}</white>");
+        c.setIfMissing("cmd.stats.counter", "<gray>-</gray> <white>{name}</white><gray>:</gray> <white>{value}</white>");
+        c.setIfMissing("cmd.stats.empty", "<gray>No activity recorded yet.</gray>");
+        c.setIfMissing("cmd.stats.benchmark",
+                "<yellow>dao.* timers and pool stats include {votes} benchmark votes; vote counters do not.</yellow>");
+
+        c.setIfMissing("cmd.benchmark.busy", "<red>A benchmark is already running.</red>");
+        c.setIfMissing("cmd.benchmark.started", "<gray>Casting {votes} test votes on {db}, {concurrency} at a time...</gray>");
+        c.setIfMissing("cmd.benchmark.throughput", "<aqua><b>Throughput</b></aqua> <white>{throughput} votes/s</white> <gray>({accepted}/{votes} accepted in {seconds}s)</gray>");
+        c.setIfMissing("cmd.benchmark.latency", "<aqua><b>Latency</b></aqua> <gray>p50</gray> <white>{p50}ms</white> <gray>p95</gray> <white>{p95}ms</white> <gray>p99</gray> <white>{p99}ms</white> <gray>max</gray> <white>{max}ms</white>");
+        c.setIfMissing("cmd.benchmark.pool", "<aqua><b>Pool wait</b></aqua> <white>{wait}ms</white> <gray>avg over {acquisitions} connections ({total}ms total)</gray>");
+
+        c.setIfMissing("cmd.migrate.same", "<red>Source and target must be different databases.</red>");
+        c.setIfMissing("cmd.migrate.busy", "<red>A migration is already running.</red>");
+        c.setIfMissing("cmd.migrate.started", "<gray>Migrating polls from {from} to {to}. Votes and poll changes are paused until it finishes...</gray>");
+        c.setIfMissing("cmd.migrate.prune", "<yellow>Polls in {to} that are not in {from} will be deleted with their votes.</yellow>");
+        c.setIfMissing("cmd.migrate.progress", "<gray>{table}: {rows} rows copied...</gray>");
+        c.setIfMissing("cmd.migrate.table",
+                "<gray>-</gray> <white>{table}</white><gray>: copied</gray> <white>{copied}</white><gray>, source</gray> <white>{source}</white><gray>, target</gray> <white>{target}</white>");
+        c.setIfMissing("cmd.migrate.done",
+                "<green>Migration finished in {seconds}s. Set <white>database.type: {to}</white> and restart to switch.</green>");
+        c.setIfMissing("cmd.migrate.mismatch",
+                "<yellow>Migration finished in {seconds}s, but row counts differ. Run it again to bring the target up to date; add --prune if {to} holds polls that should not be kept.</yellow>");
+        c.setIfMissing("cmd.migrate.pruned", "<gray>Deleted {polls} polls from {to} that are not in {from}.</gray>");
 
         c.setIfMissing("cmd.results.header",
                 "<aqua><b>Results for poll #{id}</b></aqua> <gray>-</gray> <white>{question}</white>");
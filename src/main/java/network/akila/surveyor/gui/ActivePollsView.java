@@ -3,11 +3,16 @@ package network.akila.surveyor.gui;
 import fr.mrmicky.fastinv.FastInv;
 import net.kyori.adventure.text.Component;
 import network.akila.surveyor.Surveyor;
-import network.akila.surveyor.model.Poll;
+import network.akila.surveyor.metrics.Metrics;
+import network.akila.surveyor.model.PollFilter;
+import network.akila.surveyor.model.PollPage;
+import network.akila.surveyor.model.PollSort;
+import network.akila.surveyor.model.PollSummary;
 import network.akila.surveyor.service.ConfigService;
 import network.akila.surveyor.service.PollService;
 import network.akila.surveyor.util.DurationParser;
-import network.akila.surveyor.util.Utils;
+import network.akila.surveyor.util.MiniTemplate;
+import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.enchantments.Enchantment;
 import org.bukkit.inventory.ItemFlag;
@@ -18,7 +23,12 @@ import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static network.akila.surveyor.util.MiniTemplate.mini;
+import static network.akila.surveyor.util.MiniTemplate.text;
 
 /**
  * GUI: lists all active (and closed) polls
@@ -27,6 +37,7 @@ public class ActivePollsView extends FastInv {
 
     /* --- Core */
     private final PollService service;
+    private final PollCardCache cardCache;
     private final DateTimeFormatter dateFmt;
     private final Duration closingSoonWindow;
 
@@ -40,27 +51,38 @@ public class ActivePollsView extends FastInv {
     private final Material matCardOpen, matCardClosed;
 
     /* --- Text */
-    private final String txtCardName;
-    private final List<String> cardLoreTmpl;
+    private static final MiniTemplate CARD_RELATIVE = MiniTemplate.of(" <dark_gray>({relative})</dark_gray>");
+    private final MiniTemplate txtCardName;
+    private final List<MiniTemplate> cardLoreTmpl;
     private final String txtNone, txtStatusOpen, txtStatusSoon, txtStatusClosed;
     private final String txtCtaOpen, txtCtaClosed;
-    private final String txtPrevName, txtPrevLore, txtNextName, txtNextLore;
-    private final String txtFilterName, txtFilterLore, txtSortName, txtSortLore;
-    private final String txtPageName, txtPageLore, txtCloseName, txtCloseLore;
+    private final MiniTemplate txtPrevName, txtPrevLore, txtNextName, txtNextLore;
+    private final MiniTemplate txtFilterName, txtSortName;
+    private final List<MiniTemplate> txtFilterLore, txtSortLore;
+    private final MiniTemplate txtPageName, txtPageLore, txtCloseName, txtCloseLore;
     private final String lblFilterAll, lblFilterOpen, lblFilterClosed;
     private final String lblSortNewest, lblSortClosingSoon, lblSortOldest;
-    private final String emptyTitleMini;
-    private final List<String> emptyLoreMini;
+    private final MiniTemplate emptyTitleMini;
+    private final List<MiniTemplate> emptyLoreMini;
+    private final Material matLoading;
+    private final MiniTemplate loadingTitleMini;
+    private final List<MiniTemplate> loadingLoreMini;
 
     /* --- State --- */
     private int page = 0;
-    private Filter filter = Filter.OPEN;
-    private Sort sort = Sort.NEWEST;
-    private List<Poll> viewData = List.of();
+    private PollFilter filter = PollFilter.OPEN;
+    private PollSort sort = PollSort.NEWEST;
+    /* Cursor that starts each page reached so far, null for the first */
+    private final List<PollPage.Cursor> pageStarts = new ArrayList<>();
+    private final Map<Integer, PollPage> pages = new HashMap<>();
+    private PollPage current;
+    private int total = -1;
+    private int loadToken = 0;
 
     public ActivePollsView(PollService service) {
         super(rowsFromMenus() * 9, titleFromMenus());
         this.service = Objects.requireNonNull(service, "PollService required");
+        this.cardCache = Surveyor.getInstance().getPollCardCache();
 
         ConfigService.ConfigFile menus = Surveyor.getInstance().menus();
 
@@ -94,9 +116,9 @@ public class ActivePollsView extends FastInv {
                 Locale.ROOT
         ).withZone(ZoneId.systemDefault());
 
-        this.txtCardName = menus.getString("active-polls.items.card.name", "<white>{question}</white>");
+        this.txtCardName = MiniTemplate.of(menus.getString("active-polls.items.card.name", "<white>{question}</white>"));
 
-        this.cardLoreTmpl = menus.getStringList("active-polls.items.card.lore").isEmpty()
+        this.cardLoreTmpl = MiniTemplate.of(menus.getStringList("active-polls.items.card.lore").isEmpty()
                 ? List.of(
                 "<gray>ID:</gray> <white>{id}</white>",
                 "<gray>Created:</gray> <white>{created}</white>",
@@ -105,7 +127,7 @@ public class ActivePollsView extends FastInv {
                 "",
                 "{cta}"
         )
-                : menus.getStringList("active-polls.items.card.lore");
+                : menus.getStringList("active-polls.items.card.lore"));
 
         /* Text values */
         this.txtNone = menus.getString("active-polls.text.none", "—");
@@ -115,18 +137,18 @@ public class ActivePollsView extends FastInv {
         this.txtCtaOpen = menus.getString("active-polls.text.cta.open", "<green>Click to view & vote</green>");
         this.txtCtaClosed = menus.getString("active-polls.text.cta.closed", "<gray>Voting disabled</gray>");
 
-        this.txtPrevName = menus.getString("active-polls.footer.items.prev.name", "<white><b>Previous</b></white>");
-        this.txtPrevLore = menus.getString("active-polls.footer.items.prev.lore", "<gray>Go to previous page</gray>");
-        this.txtNextName = menus.getString("active-polls.footer.items.next.name", "<white><b>Next</b></white>");
-        this.txtNextLore = menus.getString("active-polls.footer.items.next.lore", "<gray>Go to next page</gray>");
-        this.txtFilterName = menus.getString("active-polls.footer.items.filter.name", "<yellow><b>Filter:</b> <white>{filter}</white></yellow>");
-        this.txtFilterLore = menus.getString("active-polls.footer.items.filter.lore", "<gray>All / Open / Closed</gray>\n<green>Click to cycle</green>");
-        this.txtSortName = menus.getString("active-polls.footer.items.sort.name", "<yellow><b>Sort:</b> <white>{sort}</white></yellow>");
-        this.txtSortLore = menus.getString("active-polls.footer.items.sort.lore", "<gray>Newest / Closing Soon / Oldest</gray>\n<green>Click to cycle</green>");
-        this.txtPageName = menus.getString("active-polls.footer.items.page.name", "<aqua><b>Page {page} / {pages}</b></aqua>");
-        this.txtPageLore = menus.getString("active-polls.footer.items.page.lore", "<dark_gray>Use arrows to navigate</dark_gray>");
-        this.txtCloseName = menus.getString("active-polls.footer.items.close.name", "<red><b>Close</b></red>");
-        this.txtCloseLore = menus.getString("active-polls.footer.items.close.lore", "<gray>Exit this menu</gray>");
+        this.txtPrevName = MiniTemplate.of(menus.getString("active-polls.footer.items.prev.name", "<white><b>Previous</b></white>"));
+        this.txtPrevLore = MiniTemplate.of(menus.getString("active-polls.footer.items.prev.lore", "<gray>Go to previous page</gray>"));
+        this.txtNextName = MiniTemplate.of(menus.getString("active-polls.footer.items.next.name", "<white><b>Next</b></white>"));
+        this.txtNextLore = MiniTemplate.of(menus.getString("active-polls.footer.items.next.lore", "<gray>Go to next page</gray>"));
+        this.txtFilterName = MiniTemplate.of(menus.getString("active-polls.footer.items.filter.name", "<yellow><b>Filter:</b> <white>{filter}</white></yellow>"));
+        this.txtFilterLore = MiniTemplate.of(Arrays.asList(menus.getString("active-polls.footer.items.filter.lore", "<gray>All / Open / Closed</gray>\n<green>Click to cycle</green>").split("\n")));
+        this.txtSortName = MiniTemplate.of(menus.getString("active-polls.footer.items.sort.name", "<yellow><b>Sort:</b> <white>{sort}</white></yellow>"));
+        this.txtSortLore = MiniTemplate.of(Arrays.asList(menus.getString("active-polls.footer.items.sort.lore", "<gray>Newest / Closing Soon / Oldest</gray>\n<green>Click to cycle</green>").split("\n")));
+        this.txtPageName = MiniTemplate.of(menus.getString("active-polls.footer.items.page.name", "<aqua><b>Page {page} / {pages}</b></aqua>"));
+        this.txtPageLore = MiniTemplate.of(menus.getString("active-polls.footer.items.page.lore", "<dark_gray>Use arrows to navigate</dark_gray>"));
+        this.txtCloseName = MiniTemplate.of(menus.getString("active-polls.footer.items.close.name", "<red><b>Close</b></red>"));
+        this.txtCloseLore = MiniTemplate.of(menus.getString("active-polls.footer.items.close.lore", "<gray>Exit this menu</gray>"));
 
         this.lblFilterAll = menus.getString("active-polls.labels.filter.all", "All");
         this.lblFilterOpen = menus.getString("active-polls.labels.filter.open", "Open");
@@ -136,52 +158,114 @@ public class ActivePollsView extends FastInv {
         this.lblSortClosingSoon = menus.getString("active-polls.labels.sort.closingSoon", "Closing Soon");
         this.lblSortOldest = menus.getString("active-polls.labels.sort.oldest", "Oldest");
 
-        this.emptyTitleMini = menus.getString("active-polls.empty.title", "<gray><b>No polls found</b></gray>");
-        this.emptyLoreMini = Arrays.asList(menus.getString("active-polls.empty.lore", "<dark_gray>Try a different filter.</dark_gray>").split("\n"));
+        this.emptyTitleMini = MiniTemplate.of(menus.getString("active-polls.empty.title", "<gray><b>No polls found</b></gray>"));
+        this.emptyLoreMini = MiniTemplate.of(Arrays.asList(menus.getString("active-polls.empty.lore", "<dark_gray>Try a different filter.</dark_gray>").split("\n")));
+
+        this.matLoading = mat(menus.getString("active-polls.loading.material", "CLOCK"), Material.CLOCK);
+        this.loadingTitleMini = MiniTemplate.of(menus.getString("active-polls.loading.title", "<gray><b>Loading polls...</b></gray>"));
+        this.loadingLoreMini = MiniTemplate.of(Arrays.asList(menus.getString("active-polls.loading.lore", "<dark_gray>One moment.</dark_gray>").split("\n")));
 
         long soonHours = menus.getLong("active-polls.behavior.closingSoonHours", 6L);
         this.closingSoonWindow = Duration.ofHours(Math.max(1, soonHours));
 
+        resetPaging();
+        load();
+    }
+
+    /* Loading */
+
+    private record Loaded(PollPage page, int total) {
+    }
+
+    /**
+     * Shows the current page, fetching it off the main thread if it has not been loaded yet.
+     * Only the rows of that page are read; pages already seen are kept until the filter or sort changes.
+     */
+    private void load() {
+        int token = ++loadToken;
+        PollPage cached = pages.get(page);
+        if (cached != null) {
+            current = cached;
+            render();
+            return;
+        }
+
+        current = null;
         render();
+
+        CompletableFuture<Integer> count = total >= 0
+                ? CompletableFuture.completedFuture(total)
+                : service.count(filter);
+        service.list(filter, sort, pageStarts.get(page), pageSize)
+                .thenCombine(count, Loaded::new)
+                .whenComplete((loaded, ex) -> Bukkit.getScheduler().runTask(Surveyor.getInstance(), () -> {
+                    // a newer load replaced this one
+                    if (token != loadToken) return;
+                    if (ex != null) {
+                        Surveyor.getInstance().getLogger().warning("Failed to load polls: " + ex.getMessage());
+                        current = new PollPage(List.of(), null);
+                        render();
+                        return;
+                    }
+                    PollPage p = loaded.page();
+                    pages.put(page, p);
+                    if (p.hasNext() && pageStarts.size() == page + 1) pageStarts.add(p.next());
+                    total = loaded.total();
+                    current = p;
+                    render();
+                }));
+    }
+
+    private void resetPaging() {
+        page = 0;
+        pageStarts.clear();
+        pageStarts.add(null);
+        pages.clear();
+        total = -1;
     }
 
     /* Rendering */
 
     private void render() {
-        getInventory().clear();
-        List<Poll> all = new ArrayList<>(service.findAll().join());
-        this.viewData = applySort(applyFilter(all));
+        long start = System.nanoTime();
+        try {
+            getInventory().clear();
 
-        int totalPages = Math.max(1, (int) Math.ceil(viewData.size() / (double) pageSize));
-        page = Math.max(0, Math.min(page, totalPages - 1));
+            int totalPages = Math.max(1, (int) Math.ceil(Math.max(0, total) / (double) pageSize));
+            totalPages = Math.max(totalPages, page + 1);
 
-        drawGrid(totalPages);
-        drawFooter(totalPages);
+            drawGrid();
+            drawFooter(totalPages);
+        } finally {
+            Metrics.timer("gui.activePolls.render").record(System.nanoTime() - start);
+        }
     }
 
-    private void drawGrid(int totalPages) {
-        int start = page * pageSize;
-        int end = Math.min(start + pageSize, viewData.size());
-        List<Poll> slice = viewData.subList(start, end);
+    private void drawGrid() {
+        int center = ((getInventory().getSize() / 9 - 1) / 2) * 9 + 4;
 
-        if (slice.isEmpty()) {
-            int center = ((getInventory().getSize() / 9 - 1) / 2) * 9 + 4;
-            setItem(center, basicItem(matCardOpen, emptyTitleMini, emptyLoreMini));
+        if (current == null) {
+            setItem(center, basicItem(matLoading, loadingTitleMini.render(null), MiniTemplate.render(null, loadingLoreMini)));
             return;
         }
 
+        if (current.items().isEmpty()) {
+            setItem(center, basicItem(matCardOpen, emptyTitleMini.render(null), MiniTemplate.render(null, emptyLoreMini)));
+            return;
+        }
+
+        Instant now = Instant.now();
         int slot = 0;
-        for (Poll poll : slice) {
+        for (PollSummary poll : current.items()) {
             if (slot >= contentSlots) break;
 
-            ItemStack card = makePollCard(poll);
-            boolean closed = isClosed(poll);
+            ItemStack card = pollCard(poll, now);
 
-            if (!closed) {
-                final long pollId = poll.getId();
+            if (!poll.isClosed(now)) {
+                final long pollId = poll.id();
                 setItem(slot, card, e -> {
                     if (e.getWhoClicked() instanceof org.bukkit.entity.Player player) {
-                        new PollVoteView(service, pollId, player).open(player);
+                        PollVoteView.open(service, pollId, player);
                     }
                 });
             } else {
@@ -195,10 +279,10 @@ public class ActivePollsView extends FastInv {
 
     private void drawFooter(int totalPages) {
         /* Prev */
-        if (totalPages > 1 && page > 0) {
-            setItem(slotPrev, chip(matPrev, txtPrevName, List.of(txtPrevLore)), e -> {
+        if (page > 0) {
+            setItem(slotPrev, chip(matPrev, txtPrevName.render(null), List.of(txtPrevLore.render(null))), e -> {
                 page--;
-                render();
+                load();
             });
         }
 
@@ -208,11 +292,11 @@ public class ActivePollsView extends FastInv {
             case OPEN -> lblFilterOpen;
             case CLOSED -> lblFilterClosed;
         };
-        setItem(slotFilter, chip(matFilter, txtFilterName.replace("{filter}", filterLabel),
-                Arrays.asList(txtFilterLore.split("\n"))), e -> {
+        setItem(slotFilter, chip(matFilter, txtFilterName.render(null, mini("filter", filterLabel)),
+                MiniTemplate.render(null, txtFilterLore)), e -> {
             filter = filter.next();
-            page = 0;
-            render();
+            resetPaging();
+            load();
         });
 
         /* Sort */
@@ -221,113 +305,77 @@ public class ActivePollsView extends FastInv {
             case CLOSING_SOON -> lblSortClosingSoon;
             case OLDEST -> lblSortOldest;
         };
-        setItem(slotSort, chip(matSort, txtSortName.replace("{sort}", sortLabel),
-                Arrays.asList(txtSortLore.split("\n"))), e -> {
+        setItem(slotSort, chip(matSort, txtSortName.render(null, mini("sort", sortLabel)),
+                MiniTemplate.render(null, txtSortLore)), e -> {
             sort = sort.next();
-            page = 0;
-            render();
+            resetPaging();
+            load();
         });
 
         /* Page */
         setItem(slotPage, chip(matPage,
-                txtPageName.replace("{page}", String.valueOf(page + 1)).replace("{pages}", String.valueOf(totalPages)),
-                List.of(txtPageLore)));
+                txtPageName.render(null, text("page", page + 1), text("pages", totalPages)),
+                List.of(txtPageLore.render(null))));
 
         /* Close */
-        setItem(slotClose, chip(matClose, txtCloseName, List.of(txtCloseLore)), e -> e.getWhoClicked().closeInventory());
+        setItem(slotClose, chip(matClose, txtCloseName.render(null), List.of(txtCloseLore.render(null))), e -> e.getWhoClicked().closeInventory());
 
         /* Next */
-        if (totalPages > 1 && page + 1 < totalPages) {
-            setItem(slotNext, chip(matNext, txtNextName, List.of(txtNextLore)), e -> {
+        if (current != null && current.hasNext()) {
+            setItem(slotNext, chip(matNext, txtNextName.render(null), List.of(txtNextLore.render(null))), e -> {
                 page++;
-                render();
+                load();
             });
         }
     }
 
     /* Card creation */
 
-    private ItemStack makePollCard(Poll p) {
-        boolean closed = isClosed(p);
-        boolean closingSoon = !closed && isClosingSoon(p, closingSoonWindow);
+    private ItemStack pollCard(PollSummary p, Instant now) {
+        PollCardCache.State state = p.isClosed(now) ? PollCardCache.State.CLOSED
+                : isClosingSoon(p, now, closingSoonWindow) ? PollCardCache.State.CLOSING_SOON
+                : PollCardCache.State.OPEN;
+        String rel = relative(p.closesAt(), now);
+        return cardCache.get(p.id(), state, rel, () -> makePollCard(p, state, rel));
+    }
+
+    private ItemStack makePollCard(PollSummary p, PollCardCache.State state, String rel) {
+        boolean closed = state == PollCardCache.State.CLOSED;
+        boolean closingSoon = state == PollCardCache.State.CLOSING_SOON;
 
         Material icon = closed ? matCardClosed : matCardOpen;
-        String createdStr = p.getCreatedAt() == null ? txtNone : dateFmt.format(p.getCreatedAt());
+        String createdStr = p.createdAt() == null ? txtNone : dateFmt.format(p.createdAt());
 
         final String closesStr;
-        final String relativeMini;
-        if (p.getClosesAt() != null) {
-            closesStr = dateFmt.format(p.getClosesAt());
-            String rel = relative(p.getClosesAt());
-            relativeMini = (rel != null && !rel.isBlank())
-                    ? " <dark_gray>(" + rel + ")</dark_gray>"
-                    : "";
+        final Component relative;
+        if (p.closesAt() != null) {
+            closesStr = dateFmt.format(p.closesAt());
+            relative = (rel != null && !rel.isBlank())
+                    ? CARD_RELATIVE.render(null, text("relative", rel))
+                    : Component.empty();
         } else {
             closesStr = txtNone;
-            relativeMini = "";
+            relative = Component.empty();
         }
 
         String statusMini = closed ? txtStatusClosed : (closingSoon ? txtStatusSoon : txtStatusOpen);
         String ctaMini = closed ? txtCtaClosed : txtCtaOpen;
 
-        List<String> loreMini = cardLoreTmpl.stream()
-                .map(line -> line
-                        .replace("{id}", String.valueOf(p.getId()))
-                        .replace("{created}", createdStr)
-                        .replace("{closes}", closesStr)
-                        .replace("{relative}", relativeMini)
-                        .replace("{status}", statusMini)
-                        .replace("{cta}", ctaMini)
-                )
-                .toList();
-
-        ItemStack card = basicItem(icon, txtCardName.replace("{question}", escapeMini(p.getQuestion())), loreMini);
+        List<Component> lore = MiniTemplate.render(null, cardLoreTmpl,
+                text("id", p.id()),
+                mini("created", createdStr),
+                mini("closes", closesStr),
+                MiniTemplate.component("relative", relative),
+                mini("status", statusMini),
+                mini("cta", ctaMini));
+
+        ItemStack card = basicItem(icon, txtCardName.render(null, text("question", p.question())), lore);
         if (closingSoon) addGlow(card);
 
         return card;
     }
 
 
-    /* Filtering & Sorting */
-
-    private enum Filter {
-        ALL, OPEN, CLOSED;
-
-        Filter next() {
-            return values()[(ordinal() + 1) % values().length];
-        }
-    }
-
-    private enum Sort {
-        NEWEST, CLOSING_SOON, OLDEST;
-
-        Sort next() {
-            return values()[(ordinal() + 1) % values().length];
-        }
-    }
-
-    private List<Poll> applyFilter(List<Poll> src) {
-        Instant now = Instant.now();
-        return switch (filter) {
-            case ALL -> src;
-            case OPEN ->
-                    src.stream().filter(p -> !p.isManuallyClosed() && (p.getClosesAt() == null || now.isBefore(p.getClosesAt()))).toList();
-            case CLOSED ->
-                    src.stream().filter(p -> p.isManuallyClosed() || (p.getClosesAt() != null && !now.isBefore(p.getClosesAt()))).toList();
-        };
-    }
-
-    private List<Poll> applySort(List<Poll> src) {
-        Comparator<Poll> comp = switch (sort) {
-            case NEWEST ->
-                    Comparator.comparing(Poll::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder())).reversed();
-            case CLOSING_SOON ->
-                    Comparator.comparing(Poll::getClosesAt, Comparator.nullsLast(Comparator.naturalOrder()));
-            case OLDEST -> Comparator.comparing(Poll::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder()));
-        };
-        return src.stream().sorted(comp).toList();
-    }
-
     /* Helpers */
 
     private static int rowsFromMenus() {
@@ -338,37 +386,37 @@ public class ActivePollsView extends FastInv {
         return Surveyor.getInstance().menus().getString("active-polls.title", "Active Polls");
     }
 
-    private boolean isClosed(Poll p) {
-        if (p.isManuallyClosed()) return true;
-        return p.getClosesAt() != null && !Instant.now().isBefore(p.getClosesAt());
-    }
-    private boolean isClosingSoon(Poll p, Duration window) {
-        if (p.getClosesAt() == null || isClosed(p)) return false;
-        Duration until = Duration.between(Instant.now(), p.getClosesAt());
+    private boolean isClosingSoon(PollSummary p, Instant now, Duration window) {
+        if (p.closesAt() == null || p.isClosed(now)) return false;
+        Duration until = Duration.between(now, p.closesAt());
         return !until.isNegative() && until.compareTo(window) <= 0;
     }
-    private String relative(Instant when) {
+    /**
+     * Relative time to the minute, or to the second within the last minute.
+     * The coarse steps let cached cards be reused between renders.
+     */
+    private String relative(Instant when, Instant now) {
         if (when == null) return null;
-        Duration d = Duration.between(Instant.now(), when);
+        Duration d = Duration.between(now, when);
         if (d.isZero()) return "now";
         boolean past = d.isNegative();
         Duration abs = past ? d.negated() : d;
+        if (abs.getSeconds() >= 60) abs = abs.truncatedTo(ChronoUnit.MINUTES);
         return past ? DurationParser.format(abs) + " ago" : "in " + DurationParser.format(abs);
     }
 
-    private ItemStack chip(Material mat, String nameMini, List<String> loreMini) {
-        return buildItem(mat, nameMini, loreMini);
+    private ItemStack chip(Material mat, Component name, List<Component> lore) {
+        return buildItem(mat, name, lore);
     }
 
-    private ItemStack basicItem(Material mat, String nameMini, List<String> loreMini) {
-        return buildItem(mat, nameMini, loreMini);
+    private ItemStack basicItem(Material mat, Component name, List<Component> lore) {
+        return buildItem(mat, name, lore);
     }
 
-    private ItemStack buildItem(Material mat, String nameMini, List<String> loreMini) {
+    private ItemStack buildItem(Material mat, Component name, List<Component> lore) {
         ItemStack s = new ItemStack(mat);
         ItemMeta m = s.getItemMeta();
-        m.displayName(Utils.parse(nameMini));
-        List<Component> lore = Utils.parse(loreMini);
+        m.displayName(name);
         if (!lore.isEmpty()) m.lore(lore);
         m.addItemFlags(ItemFlag.HIDE_ATTRIBUTES, ItemFlag.HIDE_ENCHANTS);
         s.setItemMeta(m);
@@ -381,10 +429,6 @@ public class ActivePollsView extends FastInv {
         stack.setItemMeta(meta);
     }
 
-    private String escapeMini(String s) {
-        return s == null ? "" : s.replace("<", "&lt;").replace(">", "&gt;");
-    }
-
     private static Material mat(String name, Material def) {
         try {
             return Material.valueOf(name.toUpperCase(Locale.ROOT));
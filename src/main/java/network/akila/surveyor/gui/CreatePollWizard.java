@@ -81,7 +81,7 @@ public class CreatePollWizard extends FastInv {
 
     /* Messages */
 
-    private final String msgCustomPrompt, msgCustomNone, msgCreated;
+    private final String msgCustomPrompt, msgCustomNone, msgCreated, msgCreateError;
 
     /* Constructor */
 
@@ -192,6 +192,8 @@ public class CreatePollWizard extends FastInv {
                 "<red>No options detected. Reopening wizard…</red>");
         this.msgCreated = messages.getString("create.created",
                 "<green>Created poll <white>#{id}</white>: <white>{question}</white></green>");
+        this.msgCreateError = messages.getString("create.error",
+                "<red>Could not create the poll. Try again.</red>");
 
         /* Draw UI */
         drawFrame();
@@ -244,14 +246,14 @@ public class CreatePollWizard extends FastInv {
             if (!(e.getWhoClicked() instanceof Player player)) return;
             player.closeInventory();
 
-            player.sendMessage(Utils.parse(player, msgCustomPrompt));
+            player.sendMessage(Utils.parseTemplate(player, msgCustomPrompt));
             ChatOnceListener.capture(player, line -> {
                 List<String> opts = Arrays.stream(line.split(","))
                         .map(String::trim)
                         .filter(s -> !s.isEmpty())
                         .collect(Collectors.toList());
                 if (opts.isEmpty()) {
-                    player.sendMessage(Utils.parse(player, msgCustomNone));
+                    player.sendMessage(Utils.parseTemplate(player, msgCustomNone));
                     Bukkit.getScheduler().runTask(Surveyor.getInstance(),
                             () -> new CreatePollWizard(service, closesAt, question, afterCreate).open(player));
                     return;
@@ -320,15 +322,23 @@ public class CreatePollWizard extends FastInv {
     }
 
     private void doCreate(Player player, List<String> options) {
-        Poll poll = service.create(question, closesAt, options).join();
-        player.playSound(player.getLocation(), Sound.UI_TOAST_IN, 1f, 1f);
-
-        String createdMsg = msgCreated
-                .replace("{id}", String.valueOf(poll.getId()))
-                .replace("{question}", poll.getQuestion());
-        player.sendMessage(Utils.parse(player, createdMsg));
-
-        if (afterCreate != null) afterCreate.accept(poll);
+        service.create(question, closesAt, options).whenComplete((poll, ex) ->
+                Bukkit.getScheduler().runTask(Surveyor.getInstance(), () -> {
+                    if (ex != null) {
+                        Surveyor.getInstance().getLogger().warning("Failed to create poll: " + ex.getMessage());
+                        player.sendMessage(Utils.parse(player, msgCreateError));
+                        player.playSound(player.getLocation(), Sound.BLOCK_NOTE_BLOCK_BASS, 1f, 0.7f);
+                        return;
+                    }
+                    player.playSound(player.getLocation(), Sound.UI_TOAST_IN, 1f, 1f);
+
+                    String createdMsg = msgCreated
+                            .replace("{id}", String.valueOf(poll.getId()))
+                            .replace("{question}", poll.getQuestion());
+                    player.sendMessage(Utils.parse(player, createdMsg));
+
+                    if (afterCreate != null) afterCreate.accept(poll);
+                }));
     }
 
     /* Helpers */
@@ -0,0 +1,65 @@
+package network.akila.surveyor.gui;
+
+import network.akila.surveyor.Surveyor;
+import network.akila.surveyor.service.PollChangeListener;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Poll cards shared by every open {@link ActivePollsView}.
+ * <p>
+ * A card is rebuilt only when its poll's state or relative-time text changes,
+ * the poll itself changes, or menus.yml is reloaded. Each poll keeps only its latest card.
+ */
+@SuppressWarnings("unused")
+public final class PollCardCache implements PollChangeListener {
+
+    public enum State {
+        OPEN, CLOSING_SOON, CLOSED
+    }
+
+    private record Key(State state, String relative) {
+    }
+
+    private record Card(Key key, ItemStack item) {
+    }
+
+    private final Map<Long, Card> cards = new ConcurrentHashMap<>();
+    private volatile Object menusConfig;
+
+    /**
+     * Returns a copy of the cached card, rendering it first if the state or relative text differs.
+     */
+    public ItemStack get(long pollId, State state, String relative, Supplier<ItemStack> render) {
+        Object current = Surveyor.getInstance().menus().raw();
+        if (current != menusConfig) {
+            cards.clear();
+            menusConfig = current;
+        }
+
+        Key key = new Key(state, relative);
+        Card card = cards.get(pollId);
+        if (card == null || !card.key().equals(key)) {
+            card = new Card(key, render.get());
+            cards.put(pollId, card);
+        }
+        return card.item().clone();
+    }
+
+    @Override
+    public void pollChanged(long pollId, Change change) {
+        // cards do not show vote counts
+        if (change != Change.VOTED) cards.remove(pollId);
+    }
+
+    public void invalidateAll() {
+        cards.clear();
+    }
+
+    public int size() {
+        return cards.size();
+    }
+}
@@ -4,25 +4,38 @@ import fr.mrmicky.fastinv.FastInv;
 import fr.mrmicky.fastinv.ItemBuilder;
 import net.kyori.adventure.text.Component;
 import network.akila.surveyor.Surveyor;
+import network.akila.surveyor.metrics.Metrics;
 import network.akila.surveyor.model.Poll;
 import network.akila.surveyor.model.PollOption;
+import network.akila.surveyor.model.PollViewModel;
+import network.akila.surveyor.model.VoteCounts;
+import network.akila.surveyor.model.VoteResult;
 import network.akila.surveyor.service.ConfigService;
+import network.akila.surveyor.service.PollChangeListener;
 import network.akila.surveyor.service.PollService;
 import network.akila.surveyor.util.DurationParser;
+import network.akila.surveyor.util.MiniTemplate;
 import network.akila.surveyor.util.Utils;
+import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.Sound;
 import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryOpenEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
+import static network.akila.surveyor.util.MiniTemplate.text;
+
 /**
  * GUI for voting on a poll.
  */
@@ -36,7 +49,19 @@ public class PollVoteView extends FastInv {
 
     private Poll poll;
     private List<PollOption> options;
-    private boolean pollClosed;
+    private volatile boolean pollClosed;
+    private Optional<Integer> myVote = Optional.empty();
+    private VoteCounts counts;
+
+    /* Live updates */
+
+    private static final long UPDATE_INTERVAL_MS = 250L;
+    private final PollChangeListener changeListener = this::onPollChanged;
+    private final AtomicBoolean updatePending = new AtomicBoolean();
+    private volatile long lastUpdateMs;
+    private volatile boolean removed;
+    private boolean subscribed;
+    private volatile BukkitTask updateTask;
 
     /* Layout */
 
@@ -49,35 +74,37 @@ public class PollVoteView extends FastInv {
 
     /*  Formatting */
 
+    private static final MiniTemplate QUESTION_LINE = MiniTemplate.of("<gray>{line}");
+
     private final DateTimeFormatter dateFmt;
-    private final String qName;
+    private final MiniTemplate qName;
     private final int qWrapWidth;
 
-    private final String closesName;
-    private final String closesAbsTmpl;
-    private final String closesRelOpenTmpl;
-    private final String closesRelClosed;
-    private final String closesRelNone;
+    private final MiniTemplate closesName;
+    private final MiniTemplate closesAbsTmpl;
+    private final MiniTemplate closesRelOpenTmpl;
+    private final MiniTemplate closesRelClosed;
+    private final MiniTemplate closesRelNone;
     private final String txtNone;
 
     /* Controls*/
 
-    private final String helpName;
-    private final List<String> helpLore;
+    private final MiniTemplate helpName;
+    private final List<MiniTemplate> helpLore;
 
-    private final String refreshName;
-    private final List<String> refreshLore;
+    private final MiniTemplate refreshName;
+    private final List<MiniTemplate> refreshLore;
 
-    private final String closeName;
-    private final List<String> closeLore;
+    private final MiniTemplate closeName;
+    private final List<MiniTemplate> closeLore;
 
     /* Options */
 
-    private final String optNameTmpl;
-    private final List<String> optLoreClosed;
-    private final List<String> optLorePicked;
-    private final List<String> optLoreAlreadyVoted;
-    private final List<String> optLoreCanVote;
+    private final MiniTemplate optNameTmpl;
+    private final List<MiniTemplate> optLoreClosed;
+    private final List<MiniTemplate> optLorePicked;
+    private final List<MiniTemplate> optLoreAlreadyVoted;
+    private final List<MiniTemplate> optLoreCanVote;
 
     /* Materials */
 
@@ -86,23 +113,49 @@ public class PollVoteView extends FastInv {
 
     /* Messages */
 
-    private final String msgNotFound;
-    private final String msgClosed;
-    private final String msgAlready;
-    private final String msgSuccess;
-    private final String msgError;
-    private final String msgNoOptions;
+    private final MiniTemplate msgNotFound;
+    private final MiniTemplate msgClosed;
+    private final MiniTemplate msgAlready;
+    private final MiniTemplate msgSuccess;
+    private final MiniTemplate msgError;
+    private final MiniTemplate msgNoOptions;
 
     /* Init */
 
-    public PollVoteView(PollService service, long pollId, Player viewer) {
+    /**
+     * Loads the poll off the main thread and opens the view once it is ready.
+     */
+    public static void open(PollService service, long pollId, Player viewer) {
+        service.viewModel(pollId, viewer.getUniqueId()).whenComplete((model, ex) ->
+                Bukkit.getScheduler().runTask(Surveyor.getInstance(), () -> {
+                    if (!viewer.isOnline()) return;
+                    if (ex != null) {
+                        Utils.send(viewer, MiniTemplate.of(Surveyor.getInstance().messages().getString("vote.load_error", "<red>Could not load this poll. Try again.</red>")));
+                        return;
+                    }
+                    if (model.isEmpty()) {
+                        Utils.send(viewer, MiniTemplate.of(Surveyor.getInstance().messages().getString("vote.not_found", "<red>Poll not found.</red>")));
+                        return;
+                    }
+                    new PollVoteView(service, model.get(), viewer).open(viewer);
+                }));
+    }
+
+    /**
+     * Builds the view from an already loaded model. Call on the main thread.
+     */
+    public PollVoteView(PollService service, PollViewModel model, Player viewer) {
         super(
                 Math.max(3, Surveyor.getInstance().menus().getInt("poll-vote.rows", 5)) * 9,
-                computeTitle(Surveyor.getInstance().menus(), service, pollId)
+                computeTitle(Surveyor.getInstance().menus(), model.poll())
         );
         this.service = service;
-        this.pollId = pollId;
+        this.pollId = model.poll().getId();
         this.viewer = viewer;
+        this.poll = model.poll();
+        this.options = model.options();
+        this.myVote = model.myVote();
+        this.counts = model.counts();
 
         ConfigService.ConfigFile menus = Surveyor.getInstance().menus();
         ConfigService.ConfigFile messages = Surveyor.getInstance().messages();
@@ -129,45 +182,45 @@ public class PollVoteView extends FastInv {
         String pat = menus.getString("poll-vote.datetime.pattern", "yyyy-MM-dd HH:mm");
         this.dateFmt = DateTimeFormatter.ofPattern(pat, Locale.ROOT).withZone(ZoneId.systemDefault());
 
-        this.qName = menus.getString("poll-vote.items.question.name", "<aqua><b>Question</b></aqua>");
+        this.qName = MiniTemplate.of(menus.getString("poll-vote.items.question.name", "<aqua><b>Question</b></aqua>"));
         this.qWrapWidth = Math.max(12, menus.getInt("poll-vote.items.question.wrapWidth", 40));
 
-        this.closesName = menus.getString("poll-vote.items.closes.name", "<yellow><b>Closes At</b></yellow>");
-        this.closesAbsTmpl = menus.getString("poll-vote.items.closes.absolute", "<gray>{time}</gray>");
-        this.closesRelOpenTmpl = menus.getString("poll-vote.items.closes.relativeOpen", "<gray>{time}</gray>");
-        this.closesRelClosed = menus.getString("poll-vote.items.closes.relativeClosed", "<red>Closed</red>");
-        this.closesRelNone = menus.getString("poll-vote.items.closes.relativeNone", "<dark_gray>(no close time)</dark_gray>");
+        this.closesName = MiniTemplate.of(menus.getString("poll-vote.items.closes.name", "<yellow><b>Closes At</b></yellow>"));
+        this.closesAbsTmpl = MiniTemplate.of(menus.getString("poll-vote.items.closes.absolute", "<gray>{time}</gray>"));
+        this.closesRelOpenTmpl = MiniTemplate.of(menus.getString("poll-vote.items.closes.relativeOpen", "<gray>{time}</gray>"));
+        this.closesRelClosed = MiniTemplate.of(menus.getString("poll-vote.items.closes.relativeClosed", "<red>Closed</red>"));
+        this.closesRelNone = MiniTemplate.of(menus.getString("poll-vote.items.closes.relativeNone", "<dark_gray>(no close time)</dark_gray>"));
         this.txtNone = menus.getString("poll-vote.text.none", "—");
 
         // Controls
-        this.helpName = menus.getString("poll-vote.items.help.name", "<white><b>Help</b></white>");
-        this.helpLore = splitLines(menus.getString("poll-vote.items.help.lore",
-                "<gray>• Click an option to vote</gray>\n<dark_gray>• One vote per player</dark_gray>"));
+        this.helpName = MiniTemplate.of(menus.getString("poll-vote.items.help.name", "<white><b>Help</b></white>"));
+        this.helpLore = MiniTemplate.of(splitLines(menus.getString("poll-vote.items.help.lore",
+                "<gray>• Click an option to vote</gray>\n<dark_gray>• One vote per player</dark_gray>")));
 
-        this.refreshName = menus.getString("poll-vote.items.refresh.name", "<white><b>Refresh</b></white>");
-        this.refreshLore = splitLines(menus.getString("poll-vote.items.refresh.lore", "<gray>Click to refresh results/options.</gray>"));
+        this.refreshName = MiniTemplate.of(menus.getString("poll-vote.items.refresh.name", "<white><b>Refresh</b></white>"));
+        this.refreshLore = MiniTemplate.of(splitLines(menus.getString("poll-vote.items.refresh.lore", "<gray>Click to refresh results/options.</gray>")));
 
-        this.closeName = menus.getString("poll-vote.items.close.name", "<red><b>Close</b></red>");
-        this.closeLore = splitLines(menus.getString("poll-vote.items.close.lore", "<gray>Close this menu.</gray>"));
+        this.closeName = MiniTemplate.of(menus.getString("poll-vote.items.close.name", "<red><b>Close</b></red>"));
+        this.closeLore = MiniTemplate.of(splitLines(menus.getString("poll-vote.items.close.lore", "<gray>Close this menu.</gray>")));
 
         // Options
-        this.optNameTmpl = menus.getString("poll-vote.items.option.name", "<white>[{index}] <green>{text}</green>");
-        this.optLoreClosed = splitLines(menus.getString("poll-vote.items.option.lore.closed",
-                "<red>Poll closed.</red>\n<gray>You can’t vote.</gray>\n<gray>Votes (others):</gray> <white>{others}</white>"));
-        this.optLorePicked = splitLines(menus.getString("poll-vote.items.option.lore.picked",
-                "<green>You voted this.</green>\n<gray>Votes (others):</gray> <white>{others}</white>"));
-        this.optLoreAlreadyVoted = splitLines(menus.getString("poll-vote.items.option.lore.alreadyVoted",
-                "<gray>You already voted.</gray>\n<gray>Votes (others):</gray> <white>{others}</white>"));
-        this.optLoreCanVote = splitLines(menus.getString("poll-vote.items.option.lore.canVote",
-                "<gray>Click to vote for:</gray>\n<white>{text}</white>\n \n<gray>Votes (others):</gray> <white>{others}</white>"));
+        this.optNameTmpl = MiniTemplate.of(menus.getString("poll-vote.items.option.name", "<white>[{index}] <green>{text}</green>"));
+        this.optLoreClosed = MiniTemplate.of(splitLines(menus.getString("poll-vote.items.option.lore.closed",
+                "<red>Poll closed.</red>\n<gray>You can’t vote.</gray>\n<gray>Votes (others):</gray> <white>{others}</white>")));
+        this.optLorePicked = MiniTemplate.of(splitLines(menus.getString("poll-vote.items.option.lore.picked",
+                "<green>You voted this.</green>\n<gray>Votes (others):</gray> <white>{others}</white>")));
+        this.optLoreAlreadyVoted = MiniTemplate.of(splitLines(menus.getString("poll-vote.items.option.lore.alreadyVoted",
+                "<gray>You already voted.</gray>\n<gray>Votes (others):</gray> <white>{others}</white>")));
+        this.optLoreCanVote = MiniTemplate.of(splitLines(menus.getString("poll-vote.items.option.lore.canVote",
+                "<gray>Click to vote for:</gray>\n<white>{text}</white>\n \n<gray>Votes (others):</gray> <white>{others}</white>")));
 
         // Messages
-        this.msgNotFound = messages.getString("vote.not_found", "<red>Poll not found.</red>");
-        this.msgClosed = messages.getString("vote.closed", "<red>This poll is closed. You can no longer vote.</red>");
-        this.msgAlready = messages.getString("vote.already", "<red>You already voted for <white>[{index}] {text}</white></red>");
-        this.msgSuccess = messages.getString("vote.success", "<green>You voted for <white>[{index}] {text}</white></green>");
-        this.msgError = messages.getString("vote.error", "<red>Could not record your vote. Try again.</red>");
-        this.msgNoOptions = messages.getString("vote.no_options", "<gray>No options</gray>");
+        this.msgNotFound = MiniTemplate.of(messages.getString("vote.not_found", "<red>Poll not found.</red>"));
+        this.msgClosed = MiniTemplate.of(messages.getString("vote.closed", "<red>This poll is closed. You can no longer vote.</red>"));
+        this.msgAlready = MiniTemplate.of(messages.getString("vote.already", "<red>You already voted for <white>[{index}] {text}</white></red>"));
+        this.msgSuccess = MiniTemplate.of(messages.getString("vote.success", "<green>You voted for <white>[{index}] {text}</white></green>"));
+        this.msgError = MiniTemplate.of(messages.getString("vote.error", "<red>Could not record your vote. Try again.</red>"));
+        this.msgNoOptions = MiniTemplate.of(messages.getString("vote.no_options", "<gray>No options</gray>"));
 
         draw();
     }
@@ -175,19 +228,17 @@ public class PollVoteView extends FastInv {
     /* Draw */
 
     private void draw() {
-        this.poll = service.find(pollId).join().orElse(null);
-        if (poll == null) {
-            setCenterError(msgNotFound);
-            return;
+        long start = System.nanoTime();
+        try {
+            this.pollClosed = poll.isManuallyClosed() || (poll.getClosesAt() != null && Instant.now().isAfter(poll.getClosesAt()));
+
+            drawFrame();
+            drawInfo();
+            drawControls();
+            drawOptions();
+        } finally {
+            Metrics.timer("gui.pollVote.draw").record(System.nanoTime() - start);
         }
-
-        this.options = service.options(pollId).join();
-        this.pollClosed = poll.getClosesAt() != null && Instant.now().isAfter(poll.getClosesAt());
-
-        drawFrame();
-        drawInfo();
-        drawControls();
-        drawOptions();
     }
 
     /**
@@ -215,44 +266,45 @@ public class PollVoteView extends FastInv {
      */
     private void drawInfo() {
         setItem(slotQuestion, componentItem(Material.WRITABLE_BOOK,
-                qName,
-                wrapMini("<gray>" + poll.getQuestion() + "</gray>", qWrapWidth)
+                qName.render(viewer),
+                wrap(poll.getQuestion(), qWrapWidth).stream()
+                        .map(line -> QUESTION_LINE.render(viewer, text("line", line)))
+                        .toList()
         ));
 
-        String abs = (poll.getClosesAt() == null) ? txtNone : dateFmt.format(poll.getClosesAt());
-        String rel;
+        Component abs = poll.getClosesAt() == null
+                ? closesAbsTmpl.render(viewer, MiniTemplate.mini("time", txtNone))
+                : closesAbsTmpl.render(viewer, text("time", dateFmt.format(poll.getClosesAt())));
+        Component rel;
         if (poll.getClosesAt() == null) {
-            rel = closesRelNone;
+            rel = closesRelNone.render(viewer);
         } else if (pollClosed) {
-            rel = closesRelClosed;
+            rel = closesRelClosed.render(viewer);
         } else {
             String compact = DurationParser.format(Duration.between(Instant.now(), poll.getClosesAt()));
-            rel = closesRelOpenTmpl.replace("{time}", compact);
+            rel = closesRelOpenTmpl.render(viewer, text("time", compact));
         }
 
-        setItem(slotCloses, componentItem(Material.CLOCK, closesName, Arrays.asList(
-                closesAbsTmpl.replace("{time}", abs),
-                rel
-        )));
+        setItem(slotCloses, componentItem(Material.CLOCK, closesName.render(viewer), List.of(abs, rel)));
     }
 
     /** Draw refresh/close/help buttons */
     private void drawControls() {
-        setItem(slotRefresh, componentItem(Material.SPYGLASS, refreshName, refreshLore), e -> {
+        setItem(slotRefresh, componentItem(Material.SPYGLASS, refreshName.render(viewer), MiniTemplate.render(viewer, refreshLore)), e -> {
             if (e.getWhoClicked() instanceof Player p) {
                 p.playSound(p.getLocation(), Sound.UI_BUTTON_CLICK, 1f, 1.2f);
-                new PollVoteView(service, pollId, p).open(p);
+                PollVoteView.open(service, pollId, p);
             }
         });
 
-        setItem(slotClose, componentItem(Material.BARRIER, closeName, closeLore), e -> {
+        setItem(slotClose, componentItem(Material.BARRIER, closeName.render(viewer), MiniTemplate.render(viewer, closeLore)), e -> {
             if (e.getWhoClicked() instanceof Player p) {
                 p.playSound(p.getLocation(), Sound.UI_BUTTON_CLICK, 1f, 0.9f);
                 p.closeInventory();
             }
         });
 
-        setItem(slotHelp, componentItem(Material.BOOK, helpName, helpLore));
+        setItem(slotHelp, componentItem(Material.BOOK, helpName.render(viewer), MiniTemplate.render(viewer, helpLore)));
     }
 
     /** Draw all option buttons */
@@ -262,131 +314,195 @@ public class PollVoteView extends FastInv {
             return;
         }
 
-        UUID uuid = viewer.getUniqueId();
-        Optional<Integer> myVoteOpt = service.getVote(pollId, uuid).join();
+        Optional<Integer> myVoteOpt = myVote;
 
         for (int i = 0; i < options.size() && i < optionSlots.size() && i < 6; i++) {
             final int index = i;
             final PollOption option = options.get(i);
 
-            int totalVotes = safeJoin(service.countVotes(pollId, index), 0);
+            int totalVotes = counts.get(index);
             int others = totalVotes - (myVoteOpt.isPresent() && myVoteOpt.get() == index ? 1 : 0);
             if (others < 0) others = 0;
 
             Material mat = optionMats.get(i % optionMats.size());
-            String name = optNameTmpl
-                    .replace("{index}", String.valueOf(index + 1))
-                    .replace("{text}", escapeMini(option.getText()));
-
-            List<String> lore;
+            MiniTemplate.Slot[] slots = {
+                    text("index", index + 1),
+                    text("text", option.getText()),
+                    text("others", others)
+            };
+            Component name = optNameTmpl.render(viewer, slots);
+
+            List<MiniTemplate> lore;
             if (pollClosed) {
-                lore = replaceVars(optLoreClosed, option.getText(), others);
+                lore = optLoreClosed;
             } else if (myVoteOpt.isPresent()) {
                 boolean picked = myVoteOpt.get() == index;
-                lore = replaceVars(picked ? optLorePicked : optLoreAlreadyVoted, option.getText(), others);
+                lore = picked ? optLorePicked : optLoreAlreadyVoted;
             } else {
-                lore = replaceVars(optLoreCanVote, option.getText(), others);
+                lore = optLoreCanVote;
             }
 
-            setItem(optionSlots.get(i), componentItem(mat, name, lore), e -> handleVoteClick((Player) e.getWhoClicked(), index, option));
+            setItem(optionSlots.get(i), componentItem(mat, name, MiniTemplate.render(viewer, lore, slots)),
+                    e -> handleVoteClick((Player) e.getWhoClicked(), index, option));
         }
     }
 
-    /* Voting Logic */
+    /* Live updates */
 
-    private void handleVoteClick(Player p, int index, PollOption option) {
-        Poll latest = service.find(pollId).join().orElse(null);
-        if (latest == null) {
-            Utils.send(p, msgNotFound);
-            return;
+    @Override
+    protected void onOpen(InventoryOpenEvent event) {
+        if (!subscribed) {
+            service.addListener(changeListener);
+            subscribed = true;
         }
+    }
 
-        if (latest.getClosesAt() != null && Instant.now().isAfter(latest.getClosesAt())) {
-            p.playSound(p.getLocation(), Sound.BLOCK_NOTE_BLOCK_BASS, 1f, 0.7f);
-            Utils.send(p, msgClosed);
-            return;
-        }
+    @Override
+    protected void onClose(InventoryCloseEvent event) {
+        service.removeListener(changeListener);
+        subscribed = false;
+        BukkitTask pending = updateTask;
+        if (pending != null) pending.cancel();
+        updatePending.set(false);
+    }
+
+    /**
+     * Called on the thread that finished the change.
+     */
+    private void onPollChanged(long changedId, PollChangeListener.Change change) {
+        if (changedId != pollId) return;
+        if (change == PollChangeListener.Change.CLOSED) pollClosed = true;
+        if (change == PollChangeListener.Change.REMOVED) removed = true;
+        requestUpdate();
+    }
+
+    /**
+     * Schedules a redraw of the option counts, at most once per {@link #UPDATE_INTERVAL_MS}.
+     * Counts come from the in-memory tally, not the database.
+     */
+    private void requestUpdate() {
+        if (!updatePending.compareAndSet(false, true)) return;
+        long wait = Math.max(0L, lastUpdateMs + UPDATE_INTERVAL_MS - System.currentTimeMillis());
+        updateTask = Bukkit.getScheduler().runTaskLater(Surveyor.getInstance(), () ->
+                service.results(pollId).whenComplete((latest, ex) ->
+                        Bukkit.getScheduler().runTask(Surveyor.getInstance(), () -> applyUpdate(latest))), Math.max(1L, (wait + 49) / 50));
+    }
+
+    private void applyUpdate(VoteCounts latest) {
+        lastUpdateMs = System.currentTimeMillis();
+        updatePending.set(false);
+        updateTask = null;
+        // the counts may arrive after the view was closed
+        if (poll == null || !subscribed) return;
 
-        Optional<Integer> already = service.getVote(pollId, p.getUniqueId()).join();
-        if (already.isPresent()) {
-            int chosen = already.get();
-            String chosenText = (chosen >= 0 && chosen < options.size()) ? options.get(chosen).getText() : "?";
-            Utils.send(p, msgAlready
-                    .replace("{index}", String.valueOf(chosen + 1))
-                    .replace("{text}", chosenText)
-            );
-            p.playSound(p.getLocation(), Sound.BLOCK_NOTE_BLOCK_BASS, 1f, 0.7f);
+        if (removed) {
+            for (int slot : optionSlots) removeItem(slot);
+            setCenterError(msgNotFound);
             return;
         }
+        if (latest != null) counts = latest;
+        if (poll.getClosesAt() != null && Instant.now().isAfter(poll.getClosesAt())) pollClosed = true;
+        drawInfo();
+        drawOptions();
+    }
 
-        try {
-            service.vote(pollId, p.getUniqueId(), index);
-            p.playSound(p.getLocation(), Sound.UI_BUTTON_CLICK, 1f, 1.2f);
-            Utils.send(p, msgSuccess
-                    .replace("{index}", String.valueOf(index + 1))
-                    .replace("{text}", option.getText())
-            );
-            new PollVoteView(service, pollId, p).open(p);
-        } catch (RuntimeException ex) {
-            Utils.send(p, msgError);
-            p.playSound(p.getLocation(), Sound.BLOCK_NOTE_BLOCK_BASS, 1f, 0.7f);
+    /* Voting Logic */
+
+    private void handleVoteClick(Player p, int index, PollOption option) {
+        service.vote(pollId, p.getUniqueId(), index).whenComplete((result, ex) ->
+                Bukkit.getScheduler().runTask(Surveyor.getInstance(), () -> {
+                    if (ex != null) {
+                        Utils.send(p, msgError);
+                        p.playSound(p.getLocation(), Sound.BLOCK_NOTE_BLOCK_BASS, 1f, 0.7f);
+                        return;
+                    }
+                    onVoteResult(p, index, option, result);
+                }));
+    }
+
+    private void onVoteResult(Player p, int index, PollOption option, VoteResult result) {
+        switch (result) {
+            case ACCEPTED -> {
+                p.playSound(p.getLocation(), Sound.UI_BUTTON_CLICK, 1f, 1.2f);
+                Utils.send(p, msgSuccess, text("index", index + 1), text("text", option.getText()));
+                myVote = Optional.of(index);
+                requestUpdate();
+            }
+            case NOT_FOUND -> Utils.send(p, msgNotFound);
+            case CLOSED -> {
+                p.playSound(p.getLocation(), Sound.BLOCK_NOTE_BLOCK_BASS, 1f, 0.7f);
+                Utils.send(p, msgClosed);
+            }
+            case ALREADY_VOTED -> {
+                p.playSound(p.getLocation(), Sound.BLOCK_NOTE_BLOCK_BASS, 1f, 0.7f);
+                service.getVote(pollId, p.getUniqueId()).thenAccept(already ->
+                        Bukkit.getScheduler().runTask(Surveyor.getInstance(), () -> {
+                            int chosen = already.orElse(-1);
+                            if (chosen >= 0) {
+                                myVote = Optional.of(chosen);
+                                requestUpdate();
+                            }
+                            String chosenText = (chosen >= 0 && chosen < options.size()) ? options.get(chosen).getText() : "?";
+                            Utils.send(p, msgAlready, text("index", chosen + 1), text("text", chosenText));
+                        }));
+            }
         }
     }
 
     /* Helpers */
 
-    private static String computeTitle(ConfigService.ConfigFile menus, PollService service, long pollId) {
-        String tmpl = menus.getString("poll-vote.title", "Poll: {question} {suffix}");
-        String suffixClosed = menus.getString("poll-vote.titleClosedSuffix", "<gray>(<red>closed</red>)</gray>");
-        String suffixOpen = menus.getString("poll-vote.titleOpenSuffix", "<gray>({relative})</gray>");
-
-        return service.find(pollId).join().map(p -> {
-            String q = trim(p.getQuestion());
-            String suffix;
-            if (p.getClosesAt() == null) suffix = "";
-            else if (Instant.now().isAfter(p.getClosesAt())) suffix = " " + suffixClosed;
-            else {
-                String rel = DurationParser.format(Duration.between(Instant.now(), p.getClosesAt()));
-                suffix = " " + suffixOpen.replace("{relative}", rel);
-            }
-            String title = tmpl.replace("{question}", q).replace("{suffix}", suffix);
-            Component c = Utils.parse(title);
-            return net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer.legacySection().serialize(c);
-        }).orElse("Poll: N/A");
+    private static String computeTitle(ConfigService.ConfigFile menus, Poll poll) {
+        MiniTemplate tmpl = MiniTemplate.of(menus.getString("poll-vote.title", "Poll: {question} {suffix}"));
+        MiniTemplate suffixClosed = MiniTemplate.of(menus.getString("poll-vote.titleClosedSuffix", "<gray>(<red>closed</red>)</gray>"));
+        MiniTemplate suffixOpen = MiniTemplate.of(menus.getString("poll-vote.titleOpenSuffix", "<gray>({relative})</gray>"));
+
+        String q = trim(poll.getQuestion());
+        Component suffix;
+        if (poll.getClosesAt() == null) suffix = Component.empty();
+        else if (Instant.now().isAfter(poll.getClosesAt())) suffix = Component.text(" ").append(suffixClosed.render(null));
+        else {
+            String rel = DurationParser.format(Duration.between(Instant.now(), poll.getClosesAt()));
+            suffix = Component.text(" ").append(suffixOpen.render(null, text("relative", rel)));
+        }
+        Component c = tmpl.render(null, text("question", q), MiniTemplate.component("suffix", suffix));
+        return net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer.legacySection().serialize(c);
     }
 
-    private void setCenterError(String mini) {
+    private void setCenterError(MiniTemplate message) {
         int center = 22;
         setItem(center, new ItemBuilder(Material.BARRIER)
-                .name(asLegacy(viewer, mini))
+                .name(asLegacy(message.render(viewer)))
                 .build());
     }
 
-    private ItemStack componentItem(Material mat, String nameMini, List<String> loreMini) {
+    private ItemStack componentItem(Material mat, Component name, List<Component> lore) {
         ItemStack stack = new ItemStack(mat);
         ItemMeta meta = stack.getItemMeta();
-        meta.displayName(Utils.parse(viewer, nameMini));
-        if (loreMini != null && !loreMini.isEmpty()) {
-            meta.lore(Utils.parse(viewer, loreMini));
+        meta.displayName(name);
+        if (lore != null && !lore.isEmpty()) {
+            meta.lore(lore);
         }
         stack.setItemMeta(meta);
         return stack;
     }
 
-    private static List<String> wrapMini(String mini, int width) {
-        String stripped = mini.replaceAll("<[^>]+>", "");
+    /**
+     * Splits text into lines of at most {@code width} characters, dropping any MiniMessage tags.
+     */
+    private static List<String> wrap(String text, int width) {
+        String stripped = text.replaceAll("<[^>]+>", "");
         List<String> lines = new ArrayList<>();
         String[] words = stripped.split("\\s+");
         StringBuilder line = new StringBuilder();
         for (String w : words) {
             if ((line.length() + w.length() + 1) > width) {
-                lines.add("<gray>" + line);
+                lines.add(line.toString());
                 line.setLength(0);
             }
             if (!line.isEmpty()) line.append(' ');
             line.append(w);
         }
-        if (!line.isEmpty()) lines.add("<gray>" + line);
+        if (!line.isEmpty()) lines.add(line.toString());
         return lines;
     }
 
@@ -411,26 +527,7 @@ public class PollVoteView extends FastInv {
         }
     }
 
-    private static String escapeMini(String s) {
-        return s == null ? "" : s.replace("<", "\\<");
-    }
-
-    private static List<String> replaceVars(List<String> lore, String text, int others) {
-        return lore.stream()
-                .map(l -> l.replace("{text}", text).replace("{others}", String.valueOf(others)))
-                .collect(Collectors.toList());
-    }
-
-    private static <T> T safeJoin(java.util.concurrent.CompletableFuture<T> f, T fallback) {
-        try {
-            return f.join();
-        } catch (Exception e) {
-            return fallback;
-        }
-    }
-
-    private static String asLegacy(Player viewer, String mini) {
-        return net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer.legacySection()
-                .serialize(Utils.parse(viewer, mini));
+    private static String asLegacy(Component c) {
+        return net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer.legacySection().serialize(c);
     }
 }
@@ -0,0 +1,64 @@
+package network.akila.surveyor.metrics;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide registry of named timers and counters.
+ * Names are dotted, e.g. {@code dao.vote.hasVoted} or {@code votes.accepted}.
+ */
+@SuppressWarnings("unused")
+public final class Metrics {
+
+    private static final Map<String, Timer> TIMERS = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    public static Timer timer(String name) {
+        return TIMERS.computeIfAbsent(name, n -> new Timer());
+    }
+
+    public static void increment(String name) {
+        COUNTERS.computeIfAbsent(name, n -> new LongAdder()).increment();
+    }
+
+    /**
+     * Every timer that has recorded at least once, by name.
+     */
+    public static Map<String, Timer.Snapshot> timers() {
+        Map<String, Timer.Snapshot> out = new TreeMap<>();
+        TIMERS.forEach((name, t) -> {
+            Timer.Snapshot s = t.snapshot();
+            if (s.count() > 0) out.put(name, s);
+        });
+        return out;
+    }
+
+    public static Map<String, Long> counters() {
+        Map<String, Long> out = new TreeMap<>();
+        COUNTERS.forEach((name, c) -> out.put(name, c.sum()));
+        return out;
+    }
+
+    public static void reset() {
+        TIMERS.clear();
+        COUNTERS.clear();
+    }
+
+    /**
+     * One line with every timer's count and p99, and every counter.
+     */
+    public static String summary() {
+        StringBuilder sb = new StringBuilder();
+        timers().forEach((name, s) -> sb.append(sb.isEmpty() ? "" : ", ")
+                .append(name).append('=').append(s.count())
+                .append(String.format(Locale.ROOT, "/p99 %.1fms", s.p99Nanos() / 1_000_000.0)));
+        counters().forEach((name, v) -> sb.append(sb.isEmpty() ? "" : ", ").append(name).append('=').append(v));
+        return sb.isEmpty() ? "no activity" : sb.toString();
+    }
+}
@@ -0,0 +1,110 @@
+package network.akila.surveyor.metrics;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Counts calls and records their latency in a fixed histogram.
+ * <p>
+ * Buckets are in microseconds, four per power of two, so a percentile is accurate to
+ * within 25%. Recording is lock-free and allocation-free.
+ */
+@SuppressWarnings("unused")
+public final class Timer {
+
+    private static final int SUB_BUCKETS = 4;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = MAX_EXPONENT * SUB_BUCKETS;
+
+    public record Snapshot(long count, long failures, long totalNanos, long maxNanos,
+                           long p50Nanos, long p95Nanos, long p99Nanos) {
+        public long averageNanos() {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+    }
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    public void record(long nanos) {
+        long n = Math.max(0, nanos);
+        count.increment();
+        totalNanos.add(n);
+        maxNanos.accumulateAndGet(n, Math::max);
+        buckets.incrementAndGet(bucket(n / 1_000));
+    }
+
+    /**
+     * Starts the call and records its latency when the returned future completes.
+     * Failed calls are recorded too and counted as failures. The returned future fails with
+     * the call's own exception, not one wrapped in a {@link java.util.concurrent.CompletionException}.
+     */
+    public <T> CompletableFuture<T> time(Supplier<CompletableFuture<T>> call) {
+        long start = System.nanoTime();
+        CompletableFuture<T> f;
+        try {
+            f = call.get();
+        } catch (RuntimeException e) {
+            failures.increment();
+            record(System.nanoTime() - start);
+            throw e;
+        }
+        CompletableFuture<T> out = new CompletableFuture<>();
+        f.whenComplete((v, ex) -> {
+            if (ex != null) failures.increment();
+            record(System.nanoTime() - start);
+            if (ex != null) out.completeExceptionally(ex);
+            else out.complete(v);
+        });
+        return out;
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = buckets.get(i);
+            seen += copy[i];
+        }
+        long max = maxNanos.get();
+        // a bucket's upper bound can lie above anything actually recorded
+        return new Snapshot(count.sum(), failures.sum(), totalNanos.sum(), max,
+                Math.min(max, percentile(copy, seen, 0.50)),
+                Math.min(max, percentile(copy, seen, 0.95)),
+                Math.min(max, percentile(copy, seen, 0.99)));
+    }
+
+    /**
+     * Upper bound of the bucket holding the given quantile, in nanoseconds.
+     */
+    private static long percentile(long[] counts, long total, double q) {
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(q * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return upperBound(i) * 1_000;
+        }
+        return upperBound(counts.length - 1) * 1_000;
+    }
+
+    static int bucket(long micros) {
+        if (micros < SUB_BUCKETS) return (int) Math.max(0, micros);
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) (micros >>> (exponent - 2)) & (SUB_BUCKETS - 1);
+        return Math.min(BUCKETS - 1, (exponent - 1) * SUB_BUCKETS + sub);
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int exponent = bucket / SUB_BUCKETS + 1;
+        int sub = bucket % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + 1 + sub) << (exponent - 2)) - 1;
+    }
+}
@@ -11,12 +11,14 @@ import java.util.Objects;
  */
 @SuppressWarnings("unused")
 public class Poll {
+    public static final int MAX_OPTIONS = 6;
+
     private Long id;
     private final String question;
     private final Instant createdAt;
     private final Instant closesAt;
     private boolean manuallyClosed;
-    private final List<PollOption> options = new ArrayList<>(6);
+    private final List<PollOption> options = new ArrayList<>(MAX_OPTIONS);
 
     public Poll(Long id, String question, Instant createdAt, Instant closesAt, boolean manuallyClosed, List<PollOption> options) {
         this.id = id;
@@ -25,7 +27,7 @@ public class Poll {
         this.closesAt = Objects.requireNonNull(closesAt, "closesAt");
         this.manuallyClosed = manuallyClosed;
         if (options != null) {
-            if (options.size() > 6) throw new IllegalArgumentException("Max 6 options allowed");
+            if (options.size() > MAX_OPTIONS) throw new IllegalArgumentException("Max " + MAX_OPTIONS + " options allowed");
             this.options.addAll(options);
         }
     }
@@ -68,7 +70,7 @@ public class Poll {
     }
 
     public void addOption(PollOption option) {
-        if (options.size() >= 6) throw new IllegalStateException("Cannot add more than 6 options");
+        if (options.size() >= MAX_OPTIONS) throw new IllegalStateException("Cannot add more than " + MAX_OPTIONS + " options");
         this.options.add(Objects.requireNonNull(option, "option"));
     }
 
@@ -0,0 +1,12 @@
+package network.akila.surveyor.model;
+
+/**
+ * Which polls a listing includes.
+ */
+public enum PollFilter {
+    ALL, OPEN, CLOSED;
+
+    public PollFilter next() {
+        return values()[(ordinal() + 1) % values().length];
+    }
+}
@@ -0,0 +1,22 @@
+package network.akila.surveyor.model;
+
+import java.util.List;
+
+/**
+ * One page of a poll listing.
+ *
+ * @param items polls on this page
+ * @param next  cursor for the following page, or null if this is the last one
+ */
+public record PollPage(List<PollSummary> items, Cursor next) {
+
+    /**
+     * Position after the last poll of a page: its sort key (epoch millis) and id.
+     */
+    public record Cursor(long sortKey, long id) {
+    }
+
+    public boolean hasNext() {
+        return next != null;
+    }
+}
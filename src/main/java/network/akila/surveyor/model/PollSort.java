@@ -0,0 +1,23 @@
+package network.akila.surveyor.model;
+
+/**
+ * Order of a poll listing. Ties are broken by poll id in the same direction.
+ */
+public enum PollSort {
+    /**
+     * Most recently created first.
+     */
+    NEWEST,
+    /**
+     * Earliest close time first.
+     */
+    CLOSING_SOON,
+    /**
+     * Least recently created first.
+     */
+    OLDEST;
+
+    public PollSort next() {
+        return values()[(ordinal() + 1) % values().length];
+    }
+}
@@ -0,0 +1,13 @@
+package network.akila.surveyor.model;
+
+import java.time.Instant;
+
+/**
+ * A poll without its options, as shown in listings.
+ */
+public record PollSummary(long id, String question, Instant createdAt, Instant closesAt, boolean manuallyClosed) {
+
+    public boolean isClosed(Instant now) {
+        return manuallyClosed || !now.isBefore(closesAt);
+    }
+}
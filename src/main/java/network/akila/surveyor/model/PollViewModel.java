@@ -0,0 +1,12 @@
+package network.akila.surveyor.model;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Everything a vote view shows for one viewer, loaded before the view opens.
+ *
+ * @param myVote the viewer's chosen option index, or empty if they have not voted
+ */
+public record PollViewModel(Poll poll, List<PollOption> options, VoteCounts counts, Optional<Integer> myVote) {
+}
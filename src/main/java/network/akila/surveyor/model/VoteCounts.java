@@ -0,0 +1,53 @@
+package network.akila.surveyor.model;
+
+import java.util.Arrays;
+
+/**
+ * Vote counts for every option of a poll, read from a single snapshot.
+ */
+@SuppressWarnings("unused")
+public class VoteCounts {
+    private final long pollId;
+    private final int[] counts;
+    private final int total;
+
+    public VoteCounts(long pollId, int[] counts) {
+        this.pollId = pollId;
+        this.counts = counts.clone();
+        int sum = 0;
+        for (int c : counts) sum += c;
+        this.total = sum;
+    }
+
+    // getters
+    public long getPollId() {
+        return pollId;
+    }
+
+    /**
+     * Votes per option, indexed by option index.
+     */
+    public int[] getCounts() {
+        return counts.clone();
+    }
+
+    /**
+     * Votes for one option, or 0 if the option does not exist.
+     */
+    public int get(int optionIndex) {
+        return optionIndex >= 0 && optionIndex < counts.length ? counts[optionIndex] : 0;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int size() {
+        return counts.length;
+    }
+
+    @Override
+    public String toString() {
+        return "VoteCounts{pollId=" + pollId + ", counts=" + Arrays.toString(counts) + ", total=" + total + '}';
+    }
+}
@@ -0,0 +1,11 @@
+package network.akila.surveyor.model;
+
+/**
+ * Outcome of casting a vote.
+ */
+public enum VoteResult {
+    ACCEPTED,
+    ALREADY_VOTED,
+    CLOSED,
+    NOT_FOUND
+}
@@ -0,0 +1,176 @@
+package network.akila.surveyor.persistence;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coalesces single-row writes into batches.
+ * Rows are collected until {@code maxBatchSize} rows are queued or {@code lingerMs}
+ * has passed since the first one, then written with one {@code executeBatch}
+ * inside one transaction. Every caller gets its own future, completed with the
+ * update count of its row once the batch is committed.
+ *
+ * @param <T> the row type
+ */
+@SuppressWarnings("unused")
+public final class BatchWriter<T> {
+
+    /**
+     * Binds one row to the statement parameters.
+     */
+    @FunctionalInterface
+    public interface Binder<T> {
+        void bind(PreparedStatement ps, T row) throws SQLException;
+    }
+
+    private record Pending<T>(T row, CompletableFuture<Integer> future) {
+    }
+
+    /**
+     * @param rows    rows waiting for a batch
+     * @param flushes flush tasks waiting on the writer thread
+     */
+    public record Stats(String name, int rows, int flushes) {
+    }
+
+    private final DatabaseProvider dbProvider;
+    private final String name;
+    private final String sql;
+    private final Binder<T> binder;
+    private final int maxBatchSize;
+    private final long lingerMs;
+
+    private final Queue<Pending<T>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final ScheduledThreadPoolExecutor flusher;
+    private volatile boolean closed;
+
+    public BatchWriter(DatabaseProvider dbProvider, String name, String sql, Binder<T> binder,
+                       int maxBatchSize, long lingerMs) {
+        this.dbProvider = dbProvider;
+        this.name = name;
+        this.sql = sql;
+        this.binder = binder;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.lingerMs = Math.max(0L, lingerMs);
+        this.flusher = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "Surveyor-" + name + "-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        this.flusher.setRemoveOnCancelPolicy(true);
+        // close() flushes what is queued itself, so a pending linger must not hold up shutdown
+        this.flusher.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * Queues a row for the next batch.
+     *
+     * @return the update count of the row once its batch is committed
+     */
+    public CompletableFuture<Integer> submit(T row) {
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        if (closed) {
+            future.completeExceptionally(new IllegalStateException("Batch writer is closed"));
+            return future;
+        }
+
+        queue.add(new Pending<>(row, future));
+        try {
+            if (queued.incrementAndGet() >= maxBatchSize) {
+                flusher.execute(this::flush);
+            } else if (scheduled.compareAndSet(false, true)) {
+                flusher.schedule(this::flush, lingerMs, TimeUnit.MILLISECONDS);
+            }
+        } catch (RejectedExecutionException ignored) {
+            // closing, close() writes what is left
+        }
+        return future;
+    }
+
+    public int queued() {
+        return queued.get();
+    }
+
+    public Stats stats() {
+        return new Stats(name, queued.get(), flusher.getQueue().size());
+    }
+
+    /**
+     * Stops accepting rows and writes everything still queued.
+     */
+    public void close() {
+        closed = true;
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(5, TimeUnit.SECONDS)) flusher.shutdownNow();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private void flush() {
+        scheduled.set(false);
+        List<Pending<T>> batch;
+        while (!(batch = drain()).isEmpty()) {
+            write(batch);
+        }
+    }
+
+    private List<Pending<T>> drain() {
+        List<Pending<T>> batch = new ArrayList<>(Math.min(queued.get(), maxBatchSize));
+        Pending<T> p;
+        while (batch.size() < maxBatchSize && (p = queue.poll()) != null) {
+            batch.add(p);
+        }
+        queued.addAndGet(-batch.size());
+        return batch;
+    }
+
+    private void write(List<Pending<T>> batch) {
+        try (Connection c = dbProvider.getConnection()) {
+            boolean autoCommit = c.getAutoCommit();
+            c.setAutoCommit(false);
+            try (PreparedStatement ps = c.prepareStatement(sql)) {
+                for (Pending<T> p : batch) {
+                    binder.bind(ps, p.row());
+                    ps.addBatch();
+                }
+                int[] counts = ps.executeBatch();
+                c.commit();
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).future().complete(i < counts.length ? counts[i] : PreparedStatement.SUCCESS_NO_INFO);
+                }
+            } catch (SQLException | RuntimeException e) {
+                c.rollback();
+                c.setAutoCommit(true);
+                // one bad row must not fail the whole batch, so fall back to row-by-row
+                for (Pending<T> p : batch) writeSingle(c, p);
+            } finally {
+                c.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            RuntimeException ex = new RuntimeException("Failed to write batch", e);
+            for (Pending<T> p : batch) p.future().completeExceptionally(ex);
+        }
+    }
+
+    private void writeSingle(Connection c, Pending<T> p) {
+        if (p.future().isDone()) return;
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            binder.bind(ps, p.row());
+            p.future().complete(ps.executeUpdate());
+        } catch (SQLException | RuntimeException e) {
+            p.future().completeExceptionally(new RuntimeException("Failed to write row", e));
+        }
+    }
+}
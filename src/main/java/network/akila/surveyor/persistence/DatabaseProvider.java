@@ -2,46 +2,140 @@ package network.akila.surveyor.persistence;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import network.akila.surveyor.persistence.enums.DbType;
+import network.akila.surveyor.persistence.enums.ExecutorMode;
 
 import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Provides a database connection pool using HikariCP.
  * Supports SQLite and MySQL.
+ * <p>
+ * Writes use {@link #getConnection()} and reads use {@link #getReadConnection()}.
+ * Both come from the same pool unless a separate read pool is configured,
+ * as the tuned SQLite profile does.
  */
 @SuppressWarnings("unused")
 public class DatabaseProvider {
 
     private final DbType dbType;
     private final HikariDataSource ds;
-    private final ExecutorService executor;
+    private final HikariDataSource readDs;
+    private final DbExecutor executor;
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
 
     public DatabaseProvider(DbType dbType, HikariDataSource ds) {
+        this(dbType, ds, ds);
+    }
+
+    /**
+     * @param ds     pool used for writes
+     * @param readDs pool used for reads, may be the same as {@code ds}
+     */
+    public DatabaseProvider(DbType dbType, HikariDataSource ds, HikariDataSource readDs) {
+        this(dbType, ds, readDs, ExecutorMode.BOUNDED);
+    }
+
+    public DatabaseProvider(DbType dbType, HikariDataSource ds, HikariDataSource readDs, ExecutorMode mode) {
+        this(dbType, ds, readDs, switch (mode) {
+            case VIRTUAL -> DbExecutor.virtualThreads();
+            case BOUNDED -> DbExecutor.bounded(poolSize(ds, readDs));
+        });
+    }
+
+    /**
+     * @param executor caller-supplied executor for database work, shut down on {@link #close()}
+     */
+    public DatabaseProvider(DbType dbType, HikariDataSource ds, HikariDataSource readDs, ExecutorService executor) {
         this.dbType = dbType;
         this.ds = ds;
-        this.executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        this.readDs = readDs;
+        this.executor = DbExecutor.wrap(executor);
+    }
+
+    private static int poolSize(HikariDataSource ds, HikariDataSource readDs) {
+        int size = ds.getMaximumPoolSize();
+        if (readDs != ds) size += readDs.getMaximumPoolSize();
+        return size;
     }
 
     public static DatabaseProvider forSqlite(Path dataFolder, String fileName) {
+        return forSqlite(dataFolder, fileName, SqliteTuning.defaults());
+    }
+
+    /**
+     * Opens a SQLite database.
+     * With WAL enabled all writes go through one dedicated writer connection and reads
+     * use a separate read-only pool, so reads never queue behind writes.
+     */
+    public static DatabaseProvider forSqlite(Path dataFolder, String fileName, SqliteTuning tuning) {
+        return forSqlite(dataFolder, fileName, tuning, ExecutorMode.BOUNDED);
+    }
+
+    public static DatabaseProvider forSqlite(Path dataFolder, String fileName, SqliteTuning tuning, ExecutorMode mode) {
+        String url = "jdbc:sqlite:" + dataFolder.resolve(fileName).toAbsolutePath();
+
+        if (!tuning.wal()) {
+            HikariConfig cfg = sqliteConfig(url, tuning, "Surveyor");
+            cfg.setMaximumPoolSize(10);
+            HikariDataSource pool = new HikariDataSource(cfg);
+            return new DatabaseProvider(DbType.SQLITE, pool, pool, mode);
+        }
+
+        HikariConfig writerCfg = sqliteConfig(url, tuning, "Surveyor-writer");
+        writerCfg.addDataSourceProperty("journal_mode", "WAL");
+        writerCfg.setMaximumPoolSize(1);
+        writerCfg.setMinimumIdle(1);
+        HikariDataSource writer = new HikariDataSource(writerCfg);
+
+        HikariConfig readerCfg = sqliteConfig(url, tuning, "Surveyor-reader");
+        readerCfg.setMaximumPoolSize(Math.max(1, tuning.readPoolSize()));
+        readerCfg.setConnectionInitSql("PRAGMA query_only = 1");
+        HikariDataSource reader = new HikariDataSource(readerCfg);
+
+        return new DatabaseProvider(DbType.SQLITE, writer, reader, mode);
+    }
+
+    private static HikariConfig sqliteConfig(String url, SqliteTuning tuning, String poolName) {
         HikariConfig cfg = new HikariConfig();
-        cfg.setJdbcUrl("jdbc:sqlite:" + dataFolder.resolve(fileName).toAbsolutePath());
-        cfg.setMaximumPoolSize(10);
+        cfg.setJdbcUrl(url);
         cfg.setConnectionTestQuery("SELECT 1");
-        cfg.setPoolName("Surveyor");
-        return new DatabaseProvider(DbType.SQLITE, new HikariDataSource(cfg));
+        cfg.setPoolName(poolName);
+        // sqlite-jdbc applies these as pragmas on every connection it opens
+        cfg.addDataSourceProperty("foreign_keys", "true");
+        cfg.addDataSourceProperty("busy_timeout", String.valueOf(tuning.busyTimeoutMs()));
+        if (tuning.wal()) {
+            cfg.addDataSourceProperty("synchronous", "NORMAL");
+            cfg.addDataSourceProperty("cache_size", String.valueOf(-Math.abs(tuning.cacheSizeKb())));
+            cfg.addDataSourceProperty("mmap_size", String.valueOf(tuning.mmapSizeBytes()));
+        }
+        return cfg;
     }
 
     public static DatabaseProvider forMysql(
             String host, int port, String db,
             String user, String pass, String params
     ) {
+        return forMysql(host, port, db, user, pass, params, ExecutorMode.BOUNDED);
+    }
+
+    public static DatabaseProvider forMysql(
+            String host, int port, String db,
+            String user, String pass, String params,
+            ExecutorMode mode
+    ) {
+        String query = withoutRewrite(params);
         HikariConfig cfg = new HikariConfig();
-        cfg.setJdbcUrl("jdbc:mysql://" + host + ":" + port + "/" + db + (params != null ? "?" + params : ""));
+        cfg.setJdbcUrl("jdbc:mysql://" + host + ":" + port + "/" + db + (query.isEmpty() ? "" : "?" + query));
         cfg.setUsername(user);
         cfg.setPassword(pass);
         cfg.setMaximumPoolSize(10);
@@ -50,26 +144,108 @@ public class DatabaseProvider {
         cfg.addDataSourceProperty("cachePrepStmts", "true");
         cfg.addDataSourceProperty("prepStmtCacheSize", "250");
         cfg.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
-        return new DatabaseProvider(DbType.MYSQL, new HikariDataSource(cfg));
+        // rewritten batches report SUCCESS_NO_INFO instead of a count per row, and the vote batches need the counts
+        cfg.addDataSourceProperty("rewriteBatchedStatements", "false");
+        HikariDataSource pool = new HikariDataSource(cfg);
+        return new DatabaseProvider(DbType.MYSQL, pool, pool, mode);
+    }
+
+    /**
+     * Drops {@code rewriteBatchedStatements} from the configured URL parameters,
+     * since a URL parameter would win over the data source property.
+     */
+    private static String withoutRewrite(String params) {
+        if (params == null || params.isBlank()) return "";
+        StringJoiner kept = new StringJoiner("&");
+        for (String param : params.split("&")) {
+            if (param.isBlank() || param.regionMatches(true, 0, "rewriteBatchedStatements", 0, 24)) continue;
+            kept.add(param);
+        }
+        return kept.toString();
     }
 
     public DbType getDbType() {
         return dbType;
     }
 
+    /**
+     * Connection for writes.
+     */
     public Connection getConnection() throws SQLException {
-        return ds.getConnection();
+        return borrow(ds);
+    }
+
+    /**
+     * Connection for reads.
+     */
+    public Connection getReadConnection() throws SQLException {
+        return borrow(readDs);
+    }
+
+    private Connection borrow(HikariDataSource source) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return source.getConnection();
+        } finally {
+            waitNanos.add(System.nanoTime() - start);
+            acquisitions.increment();
+        }
+    }
+
+    /**
+     * Current state of each connection pool: one entry, or two when reads have their own pool.
+     */
+    public List<PoolStats> getPoolStats() {
+        List<PoolStats> out = new ArrayList<>(2);
+        out.add(poolStats(ds));
+        if (readDs != ds) out.add(poolStats(readDs));
+        return out;
+    }
+
+    private static PoolStats poolStats(HikariDataSource source) {
+        HikariPoolMXBean pool = source.getHikariPoolMXBean();
+        if (pool == null) return new PoolStats(source.getPoolName(), 0, 0, 0, 0);
+        return new PoolStats(source.getPoolName(), pool.getActiveConnections(), pool.getIdleConnections(),
+                pool.getThreadsAwaitingConnection(), pool.getTotalConnections());
+    }
+
+    /**
+     * Connections handed out so far and the total time spent waiting for them.
+     */
+    public PoolWait getPoolWait() {
+        return new PoolWait(acquisitions.sum(), waitNanos.sum());
     }
 
     public HikariDataSource getDataSource() {
         return ds;
     }
 
+    public HikariDataSource getReadDataSource() {
+        return readDs;
+    }
+
     public ExecutorService getExecutor() {
         return executor;
     }
 
+    /**
+     * Database tasks waiting for a thread.
+     */
+    public int getQueueDepth() {
+        return executor.queueDepth();
+    }
+
+    /**
+     * Database tasks currently running.
+     */
+    public int getActiveCount() {
+        return executor.activeCount();
+    }
+
     public void close() {
+        if (readDs != null && readDs != ds && !readDs.isClosed()) {
+            readDs.close();
+        }
         if (ds != null && !ds.isClosed()) {
             ds.close();
         }
@@ -77,4 +253,38 @@ public class DatabaseProvider {
             executor.shutdown();
         }
     }
+
+    /**
+     * Connection counts of one Hikari pool at the moment it was sampled.
+     */
+    public record PoolStats(String name, int active, int idle, int waiting, int total) {
+    }
+
+    /**
+     * Total connection borrows and the time spent waiting for them.
+     */
+    public record PoolWait(long acquisitions, long waitNanos) {
+        public PoolWait since(PoolWait earlier) {
+            return new PoolWait(acquisitions - earlier.acquisitions, waitNanos - earlier.waitNanos);
+        }
+
+        public double averageMillis() {
+            return acquisitions == 0 ? 0 : waitNanos / 1_000_000.0 / acquisitions;
+        }
+    }
+
+    /**
+     * SQLite connection settings.
+     *
+     * @param wal           use WAL with one writer connection and a read pool
+     * @param readPoolSize  connections in the read pool
+     * @param busyTimeoutMs how long a connection waits on a locked database
+     * @param cacheSizeKb   page cache per connection
+     * @param mmapSizeBytes memory-mapped I/O size, 0 to disable
+     */
+    public record SqliteTuning(boolean wal, int readPoolSize, int busyTimeoutMs, int cacheSizeKb, long mmapSizeBytes) {
+        public static SqliteTuning defaults() {
+            return new SqliteTuning(true, 4, 5000, 16384, 64L * 1024 * 1024);
+        }
+    }
 }
@@ -0,0 +1,110 @@
+package network.akila.surveyor.persistence;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor for database work.
+ * Wraps any executor and tracks how many tasks are waiting and how many are running.
+ */
+@SuppressWarnings("unused")
+public final class DbExecutor extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+
+    private DbExecutor(ExecutorService delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * One virtual thread per task. Concurrency is then bounded by the connection pool alone.
+     */
+    public static DbExecutor virtualThreads() {
+        return new DbExecutor(Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("Surveyor-db-", 0).factory()));
+    }
+
+    /**
+     * A fixed pool of platform threads, usually sized to the connection pool.
+     */
+    public static DbExecutor bounded(int threads) {
+        AtomicInteger n = new AtomicInteger();
+        return new DbExecutor(Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "Surveyor-db-" + n.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        }));
+    }
+
+    /**
+     * Wraps a caller-supplied executor. Shutting this down shuts it down too.
+     */
+    public static DbExecutor wrap(ExecutorService delegate) {
+        return delegate instanceof DbExecutor db ? db : new DbExecutor(delegate);
+    }
+
+    /**
+     * Tasks submitted but not started yet.
+     */
+    public int queueDepth() {
+        return queued.get();
+    }
+
+    /**
+     * Tasks currently running.
+     */
+    public int activeCount() {
+        return active.get();
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        queued.incrementAndGet();
+        try {
+            delegate.execute(() -> {
+                queued.decrementAndGet();
+                active.incrementAndGet();
+                try {
+                    task.run();
+                } finally {
+                    active.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            throw e;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
@@ -0,0 +1,186 @@
+package network.akila.surveyor.persistence;
+
+import network.akila.surveyor.persistence.enums.DbType;
+
+import java.sql.*;
+import java.util.List;
+
+/**
+ * Creates and upgrades the database schema.
+ * Applied migrations are recorded in {@code schema_version}, so each one runs exactly once.
+ * Run {@link #migrate()} once at startup, before any DAO is used.
+ */
+@SuppressWarnings("unused")
+public final class SchemaManager {
+
+    // MySQL error codes for an index or column that already exists
+    private static final int ER_DUP_FIELDNAME = 1060;
+    private static final int ER_DUP_KEYNAME = 1061;
+
+    private record Migration(int version, String description, List<String> sqlite, List<String> mysql) {
+    }
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "Create polls, poll_options and votes",
+                    List.of("""
+                                    CREATE TABLE IF NOT EXISTS polls (
+                                      id INTEGER PRIMARY KEY AUTOINCREMENT,
+                                      question TEXT NOT NULL,
+                                      created_at INTEGER NOT NULL,
+                                      closes_at INTEGER NOT NULL,
+                                      manually_closed INTEGER NOT NULL DEFAULT 0
+                                    )
+                                    """,
+                            """
+                                    CREATE TABLE IF NOT EXISTS poll_options (
+                                      poll_id INTEGER NOT NULL,
+                                      opt_index INTEGER NOT NULL,
+                                      text TEXT NOT NULL,
+                                      PRIMARY KEY (poll_id, opt_index),
+                                      FOREIGN KEY (poll_id) REFERENCES polls(id) ON DELETE CASCADE
+                                    )
+                                    """,
+                            """
+                                    CREATE TABLE IF NOT EXISTS votes (
+                                      poll_id     INTEGER NOT NULL,
+                                      player_uuid TEXT    NOT NULL,
+                                      opt_index   INTEGER NOT NULL,
+                                      created_at  INTEGER NOT NULL,
+                                      PRIMARY KEY (poll_id, player_uuid),
+                                      FOREIGN KEY (poll_id) REFERENCES polls(id) ON DELETE CASCADE
+                                    )
+                                    """),
+                    List.of("""
+                                    CREATE TABLE IF NOT EXISTS polls (
+                                      id BIGINT NOT NULL AUTO_INCREMENT,
+                                      question TEXT NOT NULL,
+                                      created_at BIGINT NOT NULL,
+                                      closes_at BIGINT NOT NULL,
+                                      manually_closed TINYINT(1) NOT NULL DEFAULT 0,
+                                      PRIMARY KEY (id)
+                                    ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+                                    """,
+                            """
+                                    CREATE TABLE IF NOT EXISTS poll_options (
+                                      poll_id BIGINT NOT NULL,
+                                      opt_index INT NOT NULL,
+                                      text TEXT NOT NULL,
+                                      PRIMARY KEY (poll_id, opt_index),
+                                      CONSTRAINT fk_poll_options_poll FOREIGN KEY (poll_id) REFERENCES polls(id) ON DELETE CASCADE
+                                    ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+                                    """,
+                            """
+                                    CREATE TABLE IF NOT EXISTS votes (
+                                      poll_id     BIGINT      NOT NULL,
+                                      player_uuid VARCHAR(36) NOT NULL,
+                                      opt_index   INT         NOT NULL,
+                                      created_at  BIGINT      NOT NULL,
+                                      PRIMARY KEY (poll_id, player_uuid),
+                                      CONSTRAINT fk_votes_poll FOREIGN KEY (poll_id) REFERENCES polls(id) ON DELETE CASCADE
+                                    ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+                                    """)),
+            new Migration(2, "Index votes by option and polls by close state",
+                    List.of("CREATE INDEX IF NOT EXISTS idx_votes_poll_opt ON votes(poll_id, opt_index)",
+                            "CREATE INDEX IF NOT EXISTS idx_polls_closed_closes ON polls(manually_closed, closes_at)"),
+                    List.of("CREATE INDEX idx_votes_poll_opt ON votes(poll_id, opt_index)",
+                            "CREATE INDEX idx_polls_closed_closes ON polls(manually_closed, closes_at)")),
+            new Migration(3, "Index votes by player",
+                    List.of("CREATE INDEX IF NOT EXISTS idx_votes_player ON votes(player_uuid)"),
+                    List.of("CREATE INDEX idx_votes_player ON votes(player_uuid)")),
+            new Migration(4, "Index polls for sorted listings",
+                    List.of("CREATE INDEX IF NOT EXISTS idx_polls_created ON polls(created_at, id)",
+                            "CREATE INDEX IF NOT EXISTS idx_polls_closes ON polls(closes_at, id)"),
+                    List.of("CREATE INDEX idx_polls_created ON polls(created_at, id)",
+                            "CREATE INDEX idx_polls_closes ON polls(closes_at, id)")),
+            new Migration(5, "Add hidden flag for diagnostic polls",
+                    List.of("ALTER TABLE polls ADD COLUMN hidden INTEGER NOT NULL DEFAULT 0"),
+                    List.of("ALTER TABLE polls ADD COLUMN hidden TINYINT(1) NOT NULL DEFAULT 0"))
+    );
+
+    private final DatabaseProvider dbProvider;
+    private final DbType dbType;
+
+    public SchemaManager(DatabaseProvider dbProvider) {
+        this.dbProvider = dbProvider;
+        this.dbType = dbProvider.getDbType();
+    }
+
+    /**
+     * Applies every pending migration in order.
+     *
+     * @return the schema version after migrating
+     */
+    public int migrate() {
+        try (Connection c = dbProvider.getConnection()) {
+            try (Statement st = c.createStatement()) {
+                st.execute("""
+                        CREATE TABLE IF NOT EXISTS schema_version (
+                          version INT NOT NULL PRIMARY KEY,
+                          description VARCHAR(255) NOT NULL,
+                          applied_at BIGINT NOT NULL
+                        )
+                        """);
+            }
+
+            int current = currentVersion(c);
+            for (Migration m : MIGRATIONS) {
+                if (m.version() <= current) continue;
+                apply(c, m);
+                current = m.version();
+            }
+            return current;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to migrate schema", e);
+        }
+    }
+
+    /**
+     * The newest schema version this build knows about.
+     */
+    public static int latestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version();
+    }
+
+    private int currentVersion(Connection c) throws SQLException {
+        try (Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT MAX(version) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private void apply(Connection c, Migration m) throws SQLException {
+        // MySQL commits DDL implicitly, the transaction only matters for SQLite
+        c.setAutoCommit(false);
+        try (Statement st = c.createStatement()) {
+            for (String sql : dbType == DbType.SQLITE ? m.sqlite() : m.mysql()) {
+                execute(st, sql);
+            }
+            try (PreparedStatement ps = c.prepareStatement(
+                    "INSERT INTO schema_version(version, description, applied_at) VALUES (?, ?, ?)")) {
+                ps.setInt(1, m.version());
+                ps.setString(2, m.description());
+                ps.setLong(3, System.currentTimeMillis());
+                ps.executeUpdate();
+            }
+            c.commit();
+        } catch (SQLException e) {
+            c.rollback();
+            throw new SQLException("Migration " + m.version() + " (" + m.description() + ") failed", e);
+        } finally {
+            c.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Runs one migration statement. On MySQL a migration that failed halfway has already
+     * committed its earlier DDL, so an index or column that exists is skipped on the retry.
+     */
+    private void execute(Statement st, String sql) throws SQLException {
+        try {
+            st.execute(sql);
+        } catch (SQLException e) {
+            if (dbType == DbType.SQLITE) throw e;
+            if (e.getErrorCode() != ER_DUP_KEYNAME && e.getErrorCode() != ER_DUP_FIELDNAME) throw e;
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package network.akila.surveyor.persistence;
+
+import network.akila.surveyor.persistence.enums.DbType;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Copies polls, options and votes from one database to another.
+ * <p>
+ * Each table is read in primary key order, one keyset page at a time, and every page is
+ * upserted into the target as multi-row statements in its own transaction. Memory use is
+ * bounded by the page size. Every run copies the whole source, so rows already in the target
+ * are brought up to date and running it again after an interrupted run converges. Polls that
+ * exist only in the target are kept unless pruning is asked for, in which case they are deleted
+ * with their options and votes.
+ * <p>
+ * The source must not change while this runs; pause writes first if it is the live database.
+ */
+@SuppressWarnings("unused")
+public final class StorageMigrator {
+
+    public static final int DEFAULT_BATCH_SIZE = 5_000;
+    public static final long PROGRESS_EVERY = 50_000L;
+    private static final int ROWS_PER_INSERT = 500;
+
+    private enum Kind {LONG, INT, BOOL, TEXT}
+
+    private record Column(String name, Kind kind) {
+    }
+
+    /**
+     * A table copied in order of its two-column key. Single-column keys repeat the column.
+     */
+    private record Table(String name, List<Column> columns, int firstKey, int secondKey) {
+        boolean compositeKey() {
+            return firstKey != secondKey;
+        }
+
+        String columnList() {
+            return String.join(", ", columns.stream().map(Column::name).toList());
+        }
+
+        String key(int i) {
+            return columns.get(i).name();
+        }
+    }
+
+    private static final List<Table> TABLES = List.of(
+            new Table("polls", List.of(
+                    new Column("id", Kind.LONG),
+                    new Column("question", Kind.TEXT),
+                    new Column("created_at", Kind.LONG),
+                    new Column("closes_at", Kind.LONG),
+                    new Column("manually_closed", Kind.BOOL),
+                    new Column("hidden", Kind.BOOL)
+            ), 0, 0),
+            new Table("poll_options", List.of(
+                    new Column("poll_id", Kind.LONG),
+                    new Column("opt_index", Kind.INT),
+                    new Column("text", Kind.TEXT)
+            ), 0, 1),
+            new Table("votes", List.of(
+                    new Column("poll_id", Kind.LONG),
+                    new Column("player_uuid", Kind.TEXT),
+                    new Column("opt_index", Kind.INT),
+                    new Column("created_at", Kind.LONG)
+            ), 0, 1)
+    );
+
+    /**
+     * Receives the number of rows copied so far for a table.
+     */
+    @FunctionalInterface
+    public interface Progress {
+        void copied(String table, long rows);
+    }
+
+    /**
+     * @param removed target rows deleted because their poll does not exist in the source; always 0 without pruning
+     */
+    public record TableResult(String table, long copied, long removed, long sourceRows, long targetRows) {
+        public boolean verified() {
+            return sourceRows == targetRows;
+        }
+    }
+
+    public record Result(List<TableResult> tables, Duration took) {
+        public boolean verified() {
+            return tables.stream().allMatch(TableResult::verified);
+        }
+    }
+
+    private final DatabaseProvider source;
+    private final DatabaseProvider target;
+    private final int batchSize;
+
+    public StorageMigrator(DatabaseProvider source, DatabaseProvider target) {
+        this(source, target, DEFAULT_BATCH_SIZE);
+    }
+
+    public StorageMigrator(DatabaseProvider source, DatabaseProvider target, int batchSize) {
+        this.source = source;
+        this.target = target;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Runs the migration on the calling thread, then compares row counts.
+     * Brings both schemas up to date first, since an older source lacks newer columns.
+     *
+     * @param prune also delete target polls that are not in the source; without it, such polls
+     *              are left alone and the row counts will not match
+     */
+    public Result migrate(Progress progress, boolean prune) {
+        long started = System.nanoTime();
+        new SchemaManager(source).migrate();
+        new SchemaManager(target).migrate();
+
+        // TABLES lists polls, poll_options, votes; removed[] follows the same order
+        Set<Long> sourcePolls = new HashSet<>();
+        long[] removed = new long[TABLES.size()];
+        List<Long> copied = new ArrayList<>();
+        for (Table t : TABLES) {
+            copied.add(copy(t, progress, t == TABLES.get(0) ? sourcePolls : null));
+        }
+        if (prune) removeStale(sourcePolls, removed);
+
+        List<TableResult> results = new ArrayList<>();
+        for (int i = 0; i < TABLES.size(); i++) {
+            Table t = TABLES.get(i);
+            results.add(new TableResult(t.name(), copied.get(i), removed[i], count(source, t), count(target, t)));
+        }
+        return new Result(results, Duration.ofNanos(System.nanoTime() - started));
+    }
+
+    /**
+     * Copies a whole table.
+     *
+     * @param keys if not null, receives the first key column of every copied row
+     */
+    private long copy(Table t, Progress progress, Set<Long> keys) {
+        Object[] last = null;
+        String first = selectPage(t, false);
+        String next = selectPage(t, true);
+
+        long copied = 0;
+        long reported = 0;
+        List<Object[]> page = new ArrayList<>(batchSize);
+        try {
+            while (true) {
+                page.clear();
+                // connections are taken per page so live traffic can use them in between
+                try (Connection in = source.getReadConnection();
+                     PreparedStatement read = in.prepareStatement(last == null ? first : next)) {
+                    int i = 1;
+                    if (last != null) {
+                        bind(read, i++, t.columns().get(t.firstKey()).kind(), last[0]);
+                        if (t.compositeKey()) {
+                            bind(read, i++, t.columns().get(t.firstKey()).kind(), last[0]);
+                            bind(read, i++, t.columns().get(t.secondKey()).kind(), last[1]);
+                        }
+                    }
+                    read.setInt(i, batchSize);
+                    try (ResultSet rs = read.executeQuery()) {
+                        while (rs.next()) page.add(readRow(rs, t));
+                    }
+                }
+                if (page.isEmpty()) break;
+
+                writePage(t, page);
+                if (keys != null) {
+                    for (Object[] row : page) keys.add((Long) row[t.firstKey()]);
+                }
+
+                Object[] tail = page.get(page.size() - 1);
+                last = new Object[]{tail[t.firstKey()], tail[t.secondKey()]};
+                copied += page.size();
+                if (copied - reported >= PROGRESS_EVERY) {
+                    reported = copied;
+                    progress.copied(t.name(), copied);
+                }
+                if (page.size() < batchSize) break;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to copy " + t.name() + " after " + copied + " rows", e);
+        }
+        progress.copied(t.name(), copied);
+        return copied;
+    }
+
+    /**
+     * Deletes target polls that are not in the source, with their options and votes.
+     * Polls are the only rows this plugin deletes, so this is all a re-run has to undo.
+     * It also deletes polls created directly on the target, so it only runs when asked for.
+     */
+    private void removeStale(Set<Long> sourcePolls, long[] removed) {
+        List<Long> stale = new ArrayList<>();
+        try (Connection c = target.getReadConnection();
+             Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT id FROM polls")) {
+            while (rs.next()) {
+                long id = rs.getLong(1);
+                if (!sourcePolls.contains(id)) stale.add(id);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find polls removed from the source", e);
+        }
+        if (stale.isEmpty()) return;
+
+        try (Connection out = target.getConnection()) {
+            out.setAutoCommit(false);
+            try (PreparedStatement votes = out.prepareStatement("DELETE FROM votes WHERE poll_id = ?");
+                 PreparedStatement options = out.prepareStatement("DELETE FROM poll_options WHERE poll_id = ?");
+                 PreparedStatement polls = out.prepareStatement("DELETE FROM polls WHERE id = ?")) {
+                for (long id : stale) {
+                    votes.setLong(1, id);
+                    removed[2] += votes.executeUpdate();
+                    options.setLong(1, id);
+                    removed[1] += options.executeUpdate();
+                    polls.setLong(1, id);
+                    removed[0] += polls.executeUpdate();
+                }
+                out.commit();
+            } catch (SQLException e) {
+                out.rollback();
+                throw e;
+            } finally {
+                out.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to delete " + stale.size() + " polls removed from the source", e);
+        }
+    }
+
+    /**
+     * Writes a page as multi-row upserts in one transaction. Multi-row statements are built
+     * here rather than relying on MySQL's {@code rewriteBatchedStatements}, which
+     * {@link DatabaseProvider#forMysql} turns off for the vote batches.
+     */
+    private void writePage(Table t, List<Object[]> page) throws SQLException {
+        try (Connection out = target.getConnection()) {
+            out.setAutoCommit(false);
+            try {
+                int full = page.size() / ROWS_PER_INSERT;
+                if (full > 0) {
+                    try (PreparedStatement ps = out.prepareStatement(upsert(t, ROWS_PER_INSERT))) {
+                        for (int chunk = 0; chunk < full; chunk++) {
+                            bindRows(ps, t, page.subList(chunk * ROWS_PER_INSERT, (chunk + 1) * ROWS_PER_INSERT));
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                    }
+                }
+                int rest = page.size() % ROWS_PER_INSERT;
+                if (rest > 0) {
+                    try (PreparedStatement ps = out.prepareStatement(upsert(t, rest))) {
+                        bindRows(ps, t, page.subList(page.size() - rest, page.size()));
+                        ps.executeUpdate();
+                    }
+                }
+                out.commit();
+            } catch (SQLException e) {
+                out.rollback();
+                throw e;
+            } finally {
+                out.setAutoCommit(true);
+            }
+        }
+    }
+
+    private String upsert(Table t, int rows) {
+        String tuple = "(" + String.join(", ", t.columns().stream().map(c -> "?").toList()) + ")";
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(t.name())
+                .append("(").append(t.columnList()).append(") VALUES ").append(tuple);
+        for (int i = 1; i < rows; i++) sql.append(", ").append(tuple);
+
+        List<String> updates = new ArrayList<>();
+        for (int i = 0; i < t.columns().size(); i++) {
+            if (i == t.firstKey() || i == t.secondKey()) continue;
+            String col = t.key(i);
+            updates.add(target.getDbType() == DbType.SQLITE
+                    ? col + " = excluded." + col
+                    : col + " = VALUES(" + col + ")");
+        }
+        if (target.getDbType() == DbType.SQLITE) {
+            sql.append(" ON CONFLICT(").append(t.key(t.firstKey()));
+            if (t.compositeKey()) sql.append(", ").append(t.key(t.secondKey()));
+            sql.append(") DO UPDATE SET ");
+        } else {
+            sql.append(" ON DUPLICATE KEY UPDATE ");
+        }
+        return sql.append(String.join(", ", updates)).toString();
+    }
+
+    private static void bindRows(PreparedStatement ps, Table t, List<Object[]> rows) throws SQLException {
+        int index = 1;
+        for (Object[] row : rows) {
+            for (int c = 0; c < row.length; c++) {
+                bind(ps, index++, t.columns().get(c).kind(), row[c]);
+            }
+        }
+    }
+
+    private String selectPage(Table t, boolean resume) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(t.columnList()).append(" FROM ").append(t.name());
+        String k1 = t.key(t.firstKey());
+        String k2 = t.key(t.secondKey());
+        if (resume) {
+            if (t.compositeKey()) {
+                sql.append(" WHERE (").append(k1).append(" > ? OR (").append(k1).append(" = ? AND ").append(k2).append(" > ?))");
+            } else {
+                sql.append(" WHERE ").append(k1).append(" > ?");
+            }
+        }
+        sql.append(" ORDER BY ").append(k1);
+        if (t.compositeKey()) sql.append(", ").append(k2);
+        return sql.append(" LIMIT ?").toString();
+    }
+
+    private static long count(DatabaseProvider db, Table t) {
+        try (Connection c = db.getReadConnection();
+             Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM " + t.name())) {
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to count " + t.name(), e);
+        }
+    }
+
+    private static Object[] readRow(ResultSet rs, Table t) throws SQLException {
+        Object[] row = new Object[t.columns().size()];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = read(rs, i + 1, t.columns().get(i).kind());
+        }
+        return row;
+    }
+
+    private static Object read(ResultSet rs, int index, Kind kind) throws SQLException {
+        return switch (kind) {
+            case LONG -> rs.getLong(index);
+            case INT -> rs.getInt(index);
+            case BOOL -> rs.getBoolean(index);
+            case TEXT -> rs.getString(index);
+        };
+    }
+
+    private static void bind(PreparedStatement ps, int index, Kind kind, Object value) throws SQLException {
+        switch (kind) {
+            case LONG -> ps.setLong(index, (Long) value);
+            case INT -> ps.setInt(index, (Integer) value);
+            case BOOL -> ps.setBoolean(index, (Boolean) value);
+            case TEXT -> ps.setString(index, (String) value);
+        }
+    }
+}
@@ -1,14 +1,20 @@
 package network.akila.surveyor.persistence.dao;
 
+import network.akila.surveyor.metrics.Metrics;
 import network.akila.surveyor.model.Poll;
+import network.akila.surveyor.model.PollFilter;
 import network.akila.surveyor.model.PollOption;
+import network.akila.surveyor.model.PollPage;
+import network.akila.surveyor.model.PollSort;
+import network.akila.surveyor.model.PollSummary;
 import network.akila.surveyor.persistence.DatabaseProvider;
-import network.akila.surveyor.persistence.enums.DbType;
 
 import java.sql.*;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
@@ -21,59 +27,36 @@ import java.util.concurrent.ExecutorService;
 public class PollDAO {
 
     private final DatabaseProvider dbProvider;
-    private final DbType dbType;
     private final ExecutorService executor;
 
     public PollDAO(DatabaseProvider dbProvider) {
         this.dbProvider = dbProvider;
-        this.dbType = dbProvider.getDbType();
         this.executor = dbProvider.getExecutor();
-        initSchema();
-    }
-
-    private void initSchema() {
-        try (Connection c = dbProvider.getConnection(); Statement st = c.createStatement()) {
-            if (dbType == DbType.SQLITE) {
-                st.execute("""
-                            CREATE TABLE IF NOT EXISTS polls (
-                              id INTEGER PRIMARY KEY AUTOINCREMENT,
-                              question TEXT NOT NULL,
-                              created_at INTEGER NOT NULL,
-                              closes_at INTEGER NOT NULL,
-                              manually_closed INTEGER NOT NULL DEFAULT 0
-                            )
-                        """);
-            } else {
-                st.execute("""
-                            CREATE TABLE IF NOT EXISTS polls (
-                              id BIGINT NOT NULL AUTO_INCREMENT,
-                              question TEXT NOT NULL,
-                              created_at BIGINT NOT NULL,
-                              closes_at BIGINT NOT NULL,
-                              manually_closed TINYINT(1) NOT NULL DEFAULT 0,
-                              PRIMARY KEY (id)
-                            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
-                        """);
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException("Failed to init polls schema", e);
-        }
     }
 
     public CompletableFuture<Poll> createPoll(String question, Instant closesAt, List<String> options) {
-        return CompletableFuture.supplyAsync(() -> {
+        return createPoll(question, closesAt, options, false);
+    }
+
+    /**
+     * @param hidden hidden polls are left out of listings, counts and placeholders
+     */
+    public CompletableFuture<Poll> createPoll(String question, Instant closesAt, List<String> options, boolean hidden) {
+        return Metrics.timer("dao.poll.createPoll").time(() -> CompletableFuture.supplyAsync(() -> {
             try (Connection c = dbProvider.getConnection()) {
                 long id;
                 Instant now = Instant.now();
+                c.setAutoCommit(false);
 
                 try (PreparedStatement ps = c.prepareStatement(
-                        "INSERT INTO polls(question, created_at, closes_at, manually_closed) VALUES (?, ?, ?, ?)",
+                        "INSERT INTO polls(question, created_at, closes_at, manually_closed, hidden) VALUES (?, ?, ?, ?, ?)",
                         Statement.RETURN_GENERATED_KEYS
                 )) {
                     ps.setString(1, question);
                     ps.setLong(2, now.toEpochMilli());
                     ps.setLong(3, closesAt.toEpochMilli());
                     ps.setBoolean(4, false);
+                    ps.setBoolean(5, hidden);
                     ps.executeUpdate();
 
                     try (ResultSet rs = ps.getGeneratedKeys()) {
@@ -82,8 +65,15 @@ public class PollDAO {
                     }
                 }
 
-                PollOptionDAO optionDAO = new PollOptionDAO(dbProvider);
-                optionDAO.insertOptions(id, options).join();
+                try {
+                    PollOptionDAO.insertOptions(c, id, options);
+                    c.commit();
+                } catch (SQLException e) {
+                    c.rollback();
+                    throw e;
+                } finally {
+                    c.setAutoCommit(true);
+                }
 
                 List<PollOption> opts = new ArrayList<>();
                 for (int i = 0; i < options.size(); i++) {
@@ -94,32 +84,27 @@ public class PollDAO {
             } catch (SQLException e) {
                 throw new RuntimeException("Failed to create poll", e);
             }
-        }, executor);
+        }, executor));
     }
 
+    /**
+     * Loads a visible poll with its options. Hidden polls are reported as missing.
+     */
     public CompletableFuture<Optional<Poll>> findById(long id) {
-        return CompletableFuture.supplyAsync(() -> {
-            try (Connection c = dbProvider.getConnection()) {
+        return Metrics.timer("dao.poll.findById").time(() -> CompletableFuture.supplyAsync(() -> {
+            try (Connection c = dbProvider.getReadConnection()) {
                 Poll poll = null;
-                try (PreparedStatement ps = c.prepareStatement("SELECT * FROM polls WHERE id = ?")) {
+                try (PreparedStatement ps = c.prepareStatement("SELECT * FROM polls WHERE id = ? AND hidden = 0")) {
                     ps.setLong(1, id);
                     try (ResultSet rs = ps.executeQuery()) {
                         if (rs.next()) {
-                            poll = new Poll(
-                                    rs.getLong("id"),
-                                    rs.getString("question"),
-                                    Instant.ofEpochMilli(rs.getLong("created_at")),
-                                    Instant.ofEpochMilli(rs.getLong("closes_at")),
-                                    rs.getBoolean("manually_closed"),
-                                    new ArrayList<>()
-                            );
+                            poll = readPoll(rs);
                         }
                     }
                 }
                 if (poll == null) return Optional.empty();
 
-                PollOptionDAO optionDAO = new PollOptionDAO(dbProvider);
-                List<PollOption> options = optionDAO.findByPollId(id).join();
+                List<PollOption> options = PollOptionDAO.findByPollId(c, id);
                 for (PollOption opt : options) {
                     poll.addOption(opt);
                 }
@@ -128,28 +113,200 @@ public class PollDAO {
             } catch (SQLException e) {
                 throw new RuntimeException("Failed to load poll " + id, e);
             }
-        }, executor);
+        }, executor));
     }
 
+    /**
+     * Loads every visible poll with its options in two set-based queries on one connection.
+     */
     public CompletableFuture<List<Poll>> findAll() {
-        return CompletableFuture.supplyAsync(() -> {
-            try (Connection c = dbProvider.getConnection();
-                 PreparedStatement ps = c.prepareStatement("SELECT id FROM polls");
+        return Metrics.timer("dao.poll.findAll").time(() -> CompletableFuture.supplyAsync(
+                () -> loadWithOptions(null), executor));
+    }
+
+    /**
+     * Loads visible polls that close at or after {@code since} with their options.
+     * Every open poll closes after now, so passing a past instant includes all of them.
+     */
+    public CompletableFuture<List<Poll>> findClosingSince(Instant since) {
+        return Metrics.timer("dao.poll.findClosingSince").time(() -> CompletableFuture.supplyAsync(
+                () -> loadWithOptions(since), executor));
+    }
+
+    private List<Poll> loadWithOptions(Instant since) {
+        String where = since == null ? "p.hidden = 0" : "p.hidden = 0 AND p.closes_at >= ?";
+        try (Connection c = dbProvider.getReadConnection()) {
+            Map<Long, Poll> byId = new LinkedHashMap<>();
+            try (PreparedStatement ps = c.prepareStatement(
+                    "SELECT p.id, p.question, p.created_at, p.closes_at, p.manually_closed FROM polls p WHERE "
+                            + where + " ORDER BY p.id")) {
+                if (since != null) ps.setLong(1, since.toEpochMilli());
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        Poll poll = readPoll(rs);
+                        byId.put(poll.getId(), poll);
+                    }
+                }
+            }
+            if (byId.isEmpty()) return new ArrayList<>();
+
+            try (PreparedStatement ps = c.prepareStatement(
+                    "SELECT o.poll_id, o.opt_index, o.text FROM poll_options o JOIN polls p ON p.id = o.poll_id WHERE "
+                            + where + " ORDER BY o.poll_id, o.opt_index")) {
+                if (since != null) ps.setLong(1, since.toEpochMilli());
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        // options of polls created between the two queries are skipped
+                        Poll poll = byId.get(rs.getLong("poll_id"));
+                        if (poll != null) {
+                            poll.addOption(new PollOption(rs.getInt("opt_index"), rs.getString("text")));
+                        }
+                    }
+                }
+            }
+            return new ArrayList<>(byId.values());
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to list polls", e);
+        }
+    }
+
+    /**
+     * Reads one page of poll summaries, filtered and sorted in the database.
+     * Pages are keyset-paginated: pass the previous page's {@link PollPage#next()} to continue.
+     *
+     * @param cursor where to start, or null for the first page
+     * @param now    time that decides whether a poll is open
+     */
+    public CompletableFuture<PollPage> listSummaries(PollFilter filter, PollSort sort, PollPage.Cursor cursor, int limit, Instant now) {
+        return Metrics.timer("dao.poll.listSummaries").time(() -> CompletableFuture.supplyAsync(() -> {
+            String column = sort == PollSort.CLOSING_SOON ? "closes_at" : "created_at";
+            boolean desc = sort == PollSort.NEWEST;
+            String cmp = desc ? "<" : ">";
+            String dir = desc ? "DESC" : "ASC";
+
+            StringBuilder sql = new StringBuilder(
+                    "SELECT id, question, created_at, closes_at, manually_closed FROM polls WHERE hidden = 0 AND ")
+                    .append(filterClause(filter));
+            if (cursor != null) {
+                sql.append(" AND (").append(column).append(' ').append(cmp).append(" ? OR (")
+                        .append(column).append(" = ? AND id ").append(cmp).append(" ?))");
+            }
+            sql.append(" ORDER BY ").append(column).append(' ').append(dir)
+                    .append(", id ").append(dir).append(" LIMIT ?");
+
+            try (Connection c = dbProvider.getReadConnection();
+                 PreparedStatement ps = c.prepareStatement(sql.toString())) {
+                int i = bindFilter(ps, 1, filter, now);
+                if (cursor != null) {
+                    ps.setLong(i++, cursor.sortKey());
+                    ps.setLong(i++, cursor.sortKey());
+                    ps.setLong(i++, cursor.id());
+                }
+                // one extra row tells whether another page follows
+                ps.setInt(i, limit + 1);
+
+                List<PollSummary> items = new ArrayList<>(limit);
+                boolean more = false;
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        if (items.size() == limit) {
+                            more = true;
+                            break;
+                        }
+                        items.add(new PollSummary(
+                                rs.getLong("id"),
+                                rs.getString("question"),
+                                Instant.ofEpochMilli(rs.getLong("created_at")),
+                                Instant.ofEpochMilli(rs.getLong("closes_at")),
+                                rs.getBoolean("manually_closed")
+                        ));
+                    }
+                }
+
+                PollPage.Cursor next = null;
+                if (more) {
+                    PollSummary last = items.get(items.size() - 1);
+                    Instant key = sort == PollSort.CLOSING_SOON ? last.closesAt() : last.createdAt();
+                    next = new PollPage.Cursor(key.toEpochMilli(), last.id());
+                }
+                return new PollPage(items, next);
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to list poll summaries", e);
+            }
+        }, executor));
+    }
+
+    /**
+     * Counts the polls a filter matches.
+     */
+    public CompletableFuture<Integer> countSummaries(PollFilter filter, Instant now) {
+        return Metrics.timer("dao.poll.countSummaries").time(() -> CompletableFuture.supplyAsync(() -> {
+            String sql = "SELECT COUNT(*) FROM polls WHERE hidden = 0 AND " + filterClause(filter);
+            try (Connection c = dbProvider.getReadConnection();
+                 PreparedStatement ps = c.prepareStatement(sql)) {
+                bindFilter(ps, 1, filter, now);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? rs.getInt(1) : 0;
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to count polls", e);
+            }
+        }, executor));
+    }
+
+    /**
+     * Every visible poll id in ascending order.
+     */
+    public CompletableFuture<List<Long>> findAllIds() {
+        return Metrics.timer("dao.poll.findAllIds").time(() -> CompletableFuture.supplyAsync(() -> {
+            List<Long> ids = new ArrayList<>();
+            try (Connection c = dbProvider.getReadConnection();
+                 PreparedStatement ps = c.prepareStatement("SELECT id FROM polls WHERE hidden = 0 ORDER BY id");
                  ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) ids.add(rs.getLong(1));
+                return ids;
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to load poll ids", e);
+            }
+        }, executor));
+    }
 
-                List<Poll> list = new ArrayList<>();
-                while (rs.next()) {
-                    findById(rs.getLong("id")).join().ifPresent(list::add);
+    /**
+     * Whether a visible poll with this id exists.
+     */
+    public CompletableFuture<Boolean> exists(long id) {
+        return Metrics.timer("dao.poll.exists").time(() -> CompletableFuture.supplyAsync(() -> {
+            try (Connection c = dbProvider.getReadConnection();
+                 PreparedStatement ps = c.prepareStatement("SELECT 1 FROM polls WHERE id = ? AND hidden = 0")) {
+                ps.setLong(1, id);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next();
                 }
-                return list;
             } catch (SQLException e) {
-                throw new RuntimeException("Failed to list polls", e);
+                throw new RuntimeException("Failed to look up poll " + id, e);
             }
-        }, executor);
+        }, executor));
+    }
+
+    private static String filterClause(PollFilter filter) {
+        return switch (filter) {
+            case ALL -> "1 = 1";
+            case OPEN -> "manually_closed = 0 AND closes_at > ?";
+            case CLOSED -> "(manually_closed = 1 OR closes_at <= ?)";
+        };
+    }
+
+    /**
+     * @return the next parameter index
+     */
+    private static int bindFilter(PreparedStatement ps, int index, PollFilter filter, Instant now) throws SQLException {
+        if (filter == PollFilter.ALL) return index;
+        ps.setLong(index, now.toEpochMilli());
+        return index + 1;
     }
 
     public CompletableFuture<Void> setManuallyClosed(long id, boolean closed) {
-        return CompletableFuture.runAsync(() -> {
+        return Metrics.timer("dao.poll.setManuallyClosed").time(() -> CompletableFuture.runAsync(() -> {
             String sql = "UPDATE polls SET manually_closed=? WHERE id=?";
             try (Connection c = dbProvider.getConnection();
                  PreparedStatement ps = c.prepareStatement(sql)) {
@@ -159,11 +316,11 @@ public class PollDAO {
             } catch (SQLException e) {
                 throw new RuntimeException("Failed to update manually_closed for poll " + id, e);
             }
-        }, executor);
+        }, executor));
     }
 
     public CompletableFuture<Void> delete(long id) {
-        return CompletableFuture.runAsync(() -> {
+        return Metrics.timer("dao.poll.delete").time(() -> CompletableFuture.runAsync(() -> {
             String sql = "DELETE FROM polls WHERE id=?";
             try (Connection c = dbProvider.getConnection();
                  PreparedStatement ps = c.prepareStatement(sql)) {
@@ -172,6 +329,33 @@ public class PollDAO {
             } catch (SQLException e) {
                 throw new RuntimeException("Failed to delete poll " + id, e);
             }
-        }, executor);
+        }, executor));
+    }
+
+    /**
+     * Deletes every hidden poll with its options and votes.
+     *
+     * @return the number of polls deleted
+     */
+    public CompletableFuture<Integer> deleteHidden() {
+        return Metrics.timer("dao.poll.deleteHidden").time(() -> CompletableFuture.supplyAsync(() -> {
+            try (Connection c = dbProvider.getConnection();
+                 PreparedStatement ps = c.prepareStatement("DELETE FROM polls WHERE hidden = 1")) {
+                return ps.executeUpdate();
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to delete hidden polls", e);
+            }
+        }, executor));
+    }
+
+    private static Poll readPoll(ResultSet rs) throws SQLException {
+        return new Poll(
+                rs.getLong("id"),
+                rs.getString("question"),
+                Instant.ofEpochMilli(rs.getLong("created_at")),
+                Instant.ofEpochMilli(rs.getLong("closes_at")),
+                rs.getBoolean("manually_closed"),
+                new ArrayList<>()
+        );
     }
 }
@@ -1,8 +1,8 @@
 package network.akila.surveyor.persistence.dao;
 
+import network.akila.surveyor.metrics.Metrics;
 import network.akila.surveyor.model.PollOption;
 import network.akila.surveyor.persistence.DatabaseProvider;
-import network.akila.surveyor.persistence.enums.DbType;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -18,78 +18,63 @@ import java.util.concurrent.ExecutorService;
 public class PollOptionDAO {
 
     private final DatabaseProvider dbProvider;
-    private final DbType dbType;
     private final ExecutorService executor;
 
     public PollOptionDAO(DatabaseProvider dbProvider) {
         this.dbProvider = dbProvider;
-        this.dbType = dbProvider.getDbType();
         this.executor = dbProvider.getExecutor();
-        initSchema();
-    }
-
-    private void initSchema() {
-        try (Connection c = dbProvider.getConnection(); Statement st = c.createStatement()) {
-            if (dbType == DbType.SQLITE) {
-                st.execute("""
-                            CREATE TABLE IF NOT EXISTS poll_options (
-                              poll_id INTEGER NOT NULL,
-                              opt_index INTEGER NOT NULL,
-                              text TEXT NOT NULL,
-                              PRIMARY KEY (poll_id, opt_index),
-                              FOREIGN KEY (poll_id) REFERENCES polls(id) ON DELETE CASCADE
-                            )
-                        """);
-            } else {
-                st.execute("""
-                            CREATE TABLE IF NOT EXISTS poll_options (
-                              poll_id BIGINT NOT NULL,
-                              opt_index INT NOT NULL,
-                              text TEXT NOT NULL,
-                              PRIMARY KEY (poll_id, opt_index),
-                              CONSTRAINT fk_poll_options_poll FOREIGN KEY (poll_id) REFERENCES polls(id) ON DELETE CASCADE
-                            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
-                        """);
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException("Failed to init poll_options schema", e);
-        }
     }
 
     public CompletableFuture<Void> insertOptions(long pollId, List<String> options) {
-        return CompletableFuture.runAsync(() -> {
-            try (Connection c = dbProvider.getConnection();
-                 PreparedStatement ps = c.prepareStatement(
-                         "INSERT INTO poll_options(poll_id, opt_index, text) VALUES (?, ?, ?)")) {
-                for (int i = 0; i < options.size(); i++) {
-                    ps.setLong(1, pollId);
-                    ps.setInt(2, i);
-                    ps.setString(3, options.get(i));
-                    ps.addBatch();
-                }
-                ps.executeBatch();
+        return Metrics.timer("dao.option.insertOptions").time(() -> CompletableFuture.runAsync(() -> {
+            try (Connection c = dbProvider.getConnection()) {
+                insertOptions(c, pollId, options);
             } catch (SQLException e) {
                 throw new RuntimeException("Failed to insert poll options", e);
             }
-        }, executor);
+        }, executor));
     }
 
     public CompletableFuture<List<PollOption>> findByPollId(long pollId) {
-        return CompletableFuture.supplyAsync(() -> {
-            try (Connection c = dbProvider.getConnection();
-                 PreparedStatement ps = c.prepareStatement(
-                         "SELECT opt_index, text FROM poll_options WHERE poll_id = ? ORDER BY opt_index")) {
-                ps.setLong(1, pollId);
-                try (ResultSet rs = ps.executeQuery()) {
-                    List<PollOption> opts = new ArrayList<>();
-                    while (rs.next()) {
-                        opts.add(new PollOption(rs.getInt("opt_index"), rs.getString("text")));
-                    }
-                    return opts;
-                }
+        return Metrics.timer("dao.option.findByPollId").time(() -> CompletableFuture.supplyAsync(() -> {
+            try (Connection c = dbProvider.getReadConnection()) {
+                return findByPollId(c, pollId);
             } catch (SQLException e) {
                 throw new RuntimeException("Failed to find poll options for poll " + pollId, e);
             }
-        }, executor);
+        }, executor));
+    }
+
+    /**
+     * Inserts options on a connection the caller already holds.
+     */
+    static void insertOptions(Connection c, long pollId, List<String> options) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(
+                "INSERT INTO poll_options(poll_id, opt_index, text) VALUES (?, ?, ?)")) {
+            for (int i = 0; i < options.size(); i++) {
+                ps.setLong(1, pollId);
+                ps.setInt(2, i);
+                ps.setString(3, options.get(i));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /**
+     * Reads options on a connection the caller already holds.
+     */
+    static List<PollOption> findByPollId(Connection c, long pollId) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(
+                "SELECT opt_index, text FROM poll_options WHERE poll_id = ? ORDER BY opt_index")) {
+            ps.setLong(1, pollId);
+            try (ResultSet rs = ps.executeQuery()) {
+                List<PollOption> opts = new ArrayList<>();
+                while (rs.next()) {
+                    opts.add(new PollOption(rs.getInt("opt_index"), rs.getString("text")));
+                }
+                return opts;
+            }
+        }
     }
 }
@@ -1,16 +1,28 @@
 package network.akila.surveyor.persistence.dao;
 
+import network.akila.surveyor.metrics.Metrics;
+import network.akila.surveyor.model.Poll;
 import network.akila.surveyor.model.Vote;
+import network.akila.surveyor.model.VoteCounts;
+import network.akila.surveyor.model.VoteResult;
+import network.akila.surveyor.persistence.BatchWriter;
 import network.akila.surveyor.persistence.DatabaseProvider;
 import network.akila.surveyor.persistence.enums.DbType;
 
 import java.sql.*;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
 
 /**
  * Handles persistence of Vote objects.
@@ -23,105 +35,184 @@ public class VoteDAO {
     private final DbType dbType;
     private final ExecutorService executor;
 
+    public static final int DEFAULT_BATCH_SIZE = 64;
+    public static final long DEFAULT_LINGER_MS = 5L;
+    private static final int PLAYER_CHUNK = 500;
+    private static final int STREAM_FETCH_SIZE = 1_000;
+
+    private final BatchWriter<Vote> upserts;
+    private final BatchWriter<Vote> casts;
+
     public VoteDAO(DatabaseProvider dbProvider) {
+        this(dbProvider, DEFAULT_BATCH_SIZE, DEFAULT_LINGER_MS);
+    }
+
+    /**
+     * @param maxBatchSize most votes written in one batch
+     * @param lingerMs     how long a vote may wait for others before its batch is written
+     */
+    public VoteDAO(DatabaseProvider dbProvider, int maxBatchSize, long lingerMs) {
         this.dbProvider = dbProvider;
         this.dbType = dbProvider.getDbType();
         this.executor = dbProvider.getExecutor();
-        initSchema();
-    }
-
-    private void initSchema() {
-        try (Connection c = dbProvider.getConnection(); Statement st = c.createStatement()) {
-            if (dbType == DbType.SQLITE) {
-                st.execute("PRAGMA foreign_keys = ON;");
-                st.execute("""
-                            CREATE TABLE IF NOT EXISTS votes (
-                              poll_id     INTEGER NOT NULL,
-                              player_uuid TEXT    NOT NULL,
-                              opt_index   INTEGER NOT NULL,
-                              created_at  INTEGER NOT NULL,
-                              PRIMARY KEY (poll_id, player_uuid),
-                              FOREIGN KEY (poll_id) REFERENCES polls(id) ON DELETE CASCADE
-                            )
-                        """);
-            } else {
-                st.execute("""
-                            CREATE TABLE IF NOT EXISTS votes (
-                              poll_id     BIGINT      NOT NULL,
-                              player_uuid VARCHAR(36) NOT NULL,
-                              opt_index   INT         NOT NULL,
-                              created_at  BIGINT      NOT NULL,
-                              PRIMARY KEY (poll_id, player_uuid),
-                              CONSTRAINT fk_votes_poll FOREIGN KEY (poll_id) REFERENCES polls(id) ON DELETE CASCADE
-                            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
-                        """);
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException("Failed to init votes schema", e);
-        }
+        this.upserts = new BatchWriter<>(dbProvider, "vote", upsertSql(), VoteDAO::bindVote, maxBatchSize, lingerMs);
+        this.casts = new BatchWriter<>(dbProvider, "cast", castSql(), VoteDAO::bindCast, maxBatchSize, lingerMs);
     }
 
+    /**
+     * Queues the vote for the next batched write.
+     */
     public CompletableFuture<Void> upsertVote(Vote vote) {
-        return CompletableFuture.runAsync(() -> {
-            String sql;
-            if (dbType == DbType.SQLITE) {
-                sql = """
-                        INSERT INTO votes(poll_id, player_uuid, opt_index, created_at)
-                        VALUES (?, ?, ?, ?)
-                        ON CONFLICT(poll_id, player_uuid)
-                        DO UPDATE SET opt_index=excluded.opt_index, created_at=excluded.created_at
-                        """;
-            } else {
-                sql = """
-                        INSERT INTO votes(poll_id, player_uuid, opt_index, created_at)
-                        VALUES (?, ?, ?, ?)
-                        ON DUPLICATE KEY UPDATE opt_index=VALUES(opt_index), created_at=VALUES(created_at)
-                        """;
-            }
+        return Metrics.timer("dao.vote.upsertVote").time(() -> upserts.submit(vote).thenApply(count -> null));
+    }
+
+    private String upsertSql() {
+        if (dbType == DbType.SQLITE) {
+            return """
+                    INSERT INTO votes(poll_id, player_uuid, opt_index, created_at)
+                    VALUES (?, ?, ?, ?)
+                    ON CONFLICT(poll_id, player_uuid)
+                    DO UPDATE SET opt_index=excluded.opt_index, created_at=excluded.created_at
+                    """;
+        }
+        return """
+                INSERT INTO votes(poll_id, player_uuid, opt_index, created_at)
+                VALUES (?, ?, ?, ?)
+                ON DUPLICATE KEY UPDATE opt_index=VALUES(opt_index), created_at=VALUES(created_at)
+                """;
+    }
+
+    private static void bindVote(PreparedStatement ps, Vote vote) throws SQLException {
+        ps.setLong(1, vote.getPollId());
+        ps.setString(2, vote.getPlayerUuid().toString());
+        ps.setInt(3, vote.getOptionIndex());
+        ps.setLong(4, vote.getCreatedAt().toEpochMilli());
+    }
+
+    /**
+     * Casts a first vote on an open poll with one conditional insert.
+     * The row is only written if the poll exists, is open and the player has not voted yet;
+     * the outcome is decided by the affected row count, so concurrent clicks cannot both pass.
+     * Only a rejected vote costs a second query, to tell the reason apart.
+     * <p>
+     * The outcome relies on per-row update counts, so {@link DatabaseProvider#forMysql} turns
+     * MySQL's {@code rewriteBatchedStatements} off. A driver that still answers
+     * {@link Statement#SUCCESS_NO_INFO} gets the vote looked up by its key instead.
+     */
+    public CompletableFuture<VoteResult> castVote(long pollId, UUID player, int optionIndex) {
+        Vote vote = new Vote(pollId, player, optionIndex, Instant.now());
+        return Metrics.timer("dao.vote.castVote").time(() -> casts.submit(vote)
+                .thenCompose(count -> {
+                    if (count > 0) return CompletableFuture.completedFuture(VoteResult.ACCEPTED);
+                    if (count == Statement.SUCCESS_NO_INFO) return wasWritten(vote);
+                    return rejectionReason(pollId);
+                }));
+    }
 
+    /**
+     * Whether the stored row for the vote's poll and player is this vote,
+     * for batches that did not report what they changed.
+     */
+    private CompletableFuture<VoteResult> wasWritten(Vote vote) {
+        return CompletableFuture.supplyAsync(() -> {
+            String sql = "SELECT opt_index, created_at FROM votes WHERE poll_id = ? AND player_uuid = ?";
             try (Connection c = dbProvider.getConnection();
                  PreparedStatement ps = c.prepareStatement(sql)) {
                 ps.setLong(1, vote.getPollId());
                 ps.setString(2, vote.getPlayerUuid().toString());
-                ps.setInt(3, vote.getOptionIndex());
-                ps.setLong(4, vote.getCreatedAt().toEpochMilli());
-                ps.executeUpdate();
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next()
+                            && rs.getInt("opt_index") == vote.getOptionIndex()
+                            && rs.getLong("created_at") == vote.getCreatedAt().toEpochMilli();
+                }
             } catch (SQLException e) {
-                throw new RuntimeException("Failed to upsert vote", e);
+                throw new RuntimeException("Failed to check vote for poll " + vote.getPollId(), e);
+            }
+        }, executor).thenCompose(written -> written
+                ? CompletableFuture.completedFuture(VoteResult.ACCEPTED)
+                : rejectionReason(vote.getPollId()));
+    }
+
+    private CompletableFuture<VoteResult> rejectionReason(long pollId) {
+        return CompletableFuture.supplyAsync(() -> {
+            String sql = "SELECT manually_closed, closes_at FROM polls WHERE id = ?";
+            try (Connection c = dbProvider.getReadConnection();
+                 PreparedStatement ps = c.prepareStatement(sql)) {
+                ps.setLong(1, pollId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) return VoteResult.NOT_FOUND;
+                    if (rs.getBoolean("manually_closed") || rs.getLong("closes_at") <= System.currentTimeMillis()) {
+                        return VoteResult.CLOSED;
+                    }
+                    // the poll is still open, so the insert was ignored because the player's row exists
+                    return VoteResult.ALREADY_VOTED;
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to check vote for poll " + pollId, e);
             }
         }, executor);
     }
 
+    private String castSql() {
+        String insert = dbType == DbType.SQLITE ? "INSERT OR IGNORE" : "INSERT IGNORE";
+        return insert + """
+                 INTO votes(poll_id, player_uuid, opt_index, created_at)
+                SELECT ?, ?, ?, ? FROM polls
+                WHERE id = ? AND manually_closed = 0 AND closes_at > ?
+                """;
+    }
+
+    private static void bindCast(PreparedStatement ps, Vote vote) throws SQLException {
+        bindVote(ps, vote);
+        ps.setLong(5, vote.getPollId());
+        ps.setLong(6, vote.getCreatedAt().toEpochMilli());
+    }
+
     public CompletableFuture<Void> upsert(long pollId, UUID player, int optionIndex) {
         return upsertVote(new Vote(pollId, player, optionIndex, Instant.now()));
     }
 
     public CompletableFuture<List<Vote>> findByPoll(long pollId) {
-        return CompletableFuture.supplyAsync(() -> {
-            String sql = "SELECT player_uuid, opt_index, created_at FROM votes WHERE poll_id = ?";
-            try (Connection c = dbProvider.getConnection();
-                 PreparedStatement ps = c.prepareStatement(sql)) {
+        List<Vote> list = new ArrayList<>();
+        return streamByPoll(pollId, list::add).thenApply(n -> list);
+    }
+
+    /**
+     * Hands every vote of a poll to {@code sink}, one row at a time, on the DB executor.
+     * Rows are read through a forward-only cursor, so memory use does not grow with the poll.
+     * An exception thrown by the sink aborts the read.
+     *
+     * @return the number of rows read
+     */
+    public CompletableFuture<Long> streamByPoll(long pollId, Consumer<Vote> sink) {
+        return Metrics.timer("dao.vote.streamByPoll").time(() -> CompletableFuture.supplyAsync(() -> {
+            String sql = "SELECT player_uuid, opt_index, created_at FROM votes WHERE poll_id = ? ORDER BY player_uuid";
+            try (Connection c = dbProvider.getReadConnection();
+                 PreparedStatement ps = c.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                // MySQL only streams rows with this sentinel; anything else buffers the whole result
+                ps.setFetchSize(dbType == DbType.MYSQL ? Integer.MIN_VALUE : STREAM_FETCH_SIZE);
                 ps.setLong(1, pollId);
+                long rows = 0;
                 try (ResultSet rs = ps.executeQuery()) {
-                    List<Vote> list = new ArrayList<>();
                     while (rs.next()) {
-                        UUID uuid = UUID.fromString(rs.getString("player_uuid"));
-                        int optionIndex = rs.getInt("opt_index");
-                        Instant createdAt = Instant.ofEpochMilli(rs.getLong("created_at"));
-                        list.add(new Vote(pollId, uuid, optionIndex, createdAt));
+                        UUID uuid = UUID.fromString(rs.getString(1));
+                        int optionIndex = rs.getInt(2);
+                        Instant createdAt = Instant.ofEpochMilli(rs.getLong(3));
+                        sink.accept(new Vote(pollId, uuid, optionIndex, createdAt));
+                        rows++;
                     }
-                    return list;
                 }
+                return rows;
             } catch (SQLException e) {
                 throw new RuntimeException("Failed to find votes for poll " + pollId, e);
             }
-        }, executor);
+        }, executor));
     }
 
     public CompletableFuture<Integer> countVotes(long pollId, int optionIndex) {
-        return CompletableFuture.supplyAsync(() -> {
+        return Metrics.timer("dao.vote.countVotes").time(() -> CompletableFuture.supplyAsync(() -> {
             String sql = "SELECT COUNT(*) FROM votes WHERE poll_id=? AND opt_index=?";
-            try (Connection c = dbProvider.getConnection();
+            try (Connection c = dbProvider.getReadConnection();
                  PreparedStatement ps = c.prepareStatement(sql)) {
                 ps.setLong(1, pollId);
                 ps.setInt(2, optionIndex);
@@ -131,13 +222,104 @@ public class VoteDAO {
             } catch (SQLException e) {
                 throw new RuntimeException("Failed to count votes for poll " + pollId, e);
             }
-        }, executor);
+        }, executor));
+    }
+
+    /**
+     * Counts the votes of every option of a poll in one round trip.
+     * Options without votes are included with a count of 0.
+     */
+    public CompletableFuture<VoteCounts> countByOption(long pollId) {
+        return Metrics.timer("dao.vote.countByOption").time(() -> CompletableFuture.supplyAsync(() -> {
+            String sql = """
+                    SELECT o.opt_index, COUNT(v.player_uuid) AS votes
+                    FROM poll_options o
+                    LEFT JOIN votes v ON v.poll_id = o.poll_id AND v.opt_index = o.opt_index
+                    WHERE o.poll_id = ?
+                    GROUP BY o.opt_index
+                    ORDER BY o.opt_index
+                    """;
+            try (Connection c = dbProvider.getReadConnection();
+                 PreparedStatement ps = c.prepareStatement(sql)) {
+                ps.setLong(1, pollId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    int[] counts = new int[Poll.MAX_OPTIONS];
+                    int size = 0;
+                    while (rs.next()) {
+                        int idx = rs.getInt("opt_index");
+                        if (idx < 0 || idx >= counts.length) continue;
+                        counts[idx] = rs.getInt("votes");
+                        size = Math.max(size, idx + 1);
+                    }
+                    return new VoteCounts(pollId, Arrays.copyOf(counts, size));
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to count votes for poll " + pollId, e);
+            }
+        }, executor));
+    }
+
+    /**
+     * Looks up one player's vote by primary key.
+     *
+     * @return the chosen option index, or empty if the player has not voted
+     */
+    public CompletableFuture<Optional<Integer>> findVote(long pollId, UUID player) {
+        return Metrics.timer("dao.vote.findVote").time(() -> CompletableFuture.supplyAsync(() -> {
+            String sql = "SELECT opt_index FROM votes WHERE poll_id=? AND player_uuid=?";
+            try (Connection c = dbProvider.getReadConnection();
+                 PreparedStatement ps = c.prepareStatement(sql)) {
+                ps.setLong(1, pollId);
+                ps.setString(2, player.toString());
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? Optional.of(rs.getInt(1)) : Optional.<Integer>empty();
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to find vote for poll " + pollId, e);
+            }
+        }, executor));
+    }
+
+    /**
+     * Loads every vote of the given players, querying them in chunks.
+     *
+     * @return votes keyed by player then poll id; players without votes map to an empty map
+     */
+    public CompletableFuture<Map<UUID, Map<Long, Integer>>> findByPlayers(Collection<UUID> players) {
+        if (players.isEmpty()) return CompletableFuture.completedFuture(Map.of());
+        return Metrics.timer("dao.vote.findByPlayers").time(() -> CompletableFuture.supplyAsync(() -> {
+            List<UUID> all = List.copyOf(players);
+            Map<UUID, Map<Long, Integer>> result = new HashMap<>();
+            for (UUID player : all) result.put(player, new HashMap<>());
+
+            try (Connection c = dbProvider.getReadConnection()) {
+                for (int from = 0; from < all.size(); from += PLAYER_CHUNK) {
+                    List<UUID> chunk = all.subList(from, Math.min(all.size(), from + PLAYER_CHUNK));
+                    String sql = "SELECT poll_id, player_uuid, opt_index FROM votes WHERE player_uuid IN ("
+                            + String.join(",", Collections.nCopies(chunk.size(), "?")) + ")";
+                    try (PreparedStatement ps = c.prepareStatement(sql)) {
+                        for (int i = 0; i < chunk.size(); i++) {
+                            ps.setString(i + 1, chunk.get(i).toString());
+                        }
+                        try (ResultSet rs = ps.executeQuery()) {
+                            while (rs.next()) {
+                                UUID uuid = UUID.fromString(rs.getString("player_uuid"));
+                                result.computeIfAbsent(uuid, k -> new HashMap<>()).put(rs.getLong("poll_id"), rs.getInt("opt_index"));
+                            }
+                        }
+                    }
+                }
+                return result;
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to find votes for " + all.size() + " players", e);
+            }
+        }, executor));
     }
 
     public CompletableFuture<Boolean> hasVoted(long pollId, UUID player) {
-        return CompletableFuture.supplyAsync(() -> {
+        return Metrics.timer("dao.vote.hasVoted").time(() -> CompletableFuture.supplyAsync(() -> {
             String sql = "SELECT 1 FROM votes WHERE poll_id=? AND player_uuid=? LIMIT 1";
-            try (Connection c = dbProvider.getConnection();
+            try (Connection c = dbProvider.getReadConnection();
                  PreparedStatement ps = c.prepareStatement(sql)) {
                 ps.setLong(1, pollId);
                 ps.setString(2, player.toString());
@@ -147,11 +329,11 @@ public class VoteDAO {
             } catch (SQLException e) {
                 throw new RuntimeException("Failed to check hasVoted for poll " + pollId, e);
             }
-        }, executor);
+        }, executor));
     }
 
     public CompletableFuture<Void> deleteByPoll(long pollId) {
-        return CompletableFuture.runAsync(() -> {
+        return Metrics.timer("dao.vote.deleteByPoll").time(() -> CompletableFuture.runAsync(() -> {
             try (Connection c = dbProvider.getConnection();
                  PreparedStatement ps = c.prepareStatement("DELETE FROM votes WHERE poll_id=?")) {
                 ps.setLong(1, pollId);
@@ -159,6 +341,21 @@ public class VoteDAO {
             } catch (SQLException e) {
                 throw new RuntimeException("Failed to delete votes for poll " + pollId, e);
             }
-        }, executor);
+        }, executor));
+    }
+
+    /**
+     * Queue depth of each batch writer, for diagnostics.
+     */
+    public List<BatchWriter.Stats> batchStats() {
+        return List.of(upserts.stats(), casts.stats());
+    }
+
+    /**
+     * Writes any queued votes and stops the batch writer.
+     */
+    public void close() {
+        upserts.close();
+        casts.close();
     }
 }
@@ -0,0 +1,15 @@
+package network.akila.surveyor.persistence.enums;
+
+/**
+ * How database work is scheduled.
+ */
+public enum ExecutorMode {
+    /**
+     * A fixed pool of platform threads sized to the connection pool.
+     */
+    BOUNDED,
+    /**
+     * One virtual thread per task.
+     */
+    VIRTUAL
+}
@@ -0,0 +1,110 @@
+package network.akila.surveyor.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of rendered placeholder values.
+ * <p>
+ * Player-scoped values are keyed by player and identifier, global ones by identifier alone.
+ * Each entry expires on its own. An expired entry keeps being served while one background
+ * refresh runs, so a burst of requests never turns into a burst of lookups.
+ * The least recently used entries are evicted once the cache is full.
+ */
+@SuppressWarnings("unused")
+public final class PlaceholderCache {
+
+    public static final long DEFAULT_TTL_MS = 1_000L;
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    /**
+     * @param player the requesting player, or null for global placeholders
+     */
+    public record Key(UUID player, String identifier) {
+        public static Key global(String identifier) {
+            return new Key(null, identifier);
+        }
+    }
+
+    private static final class Entry {
+        volatile String value;
+        volatile long expiresAt;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+    }
+
+    private final Map<Key, Entry> entries;
+    private final long ttlMs;
+    private final LongSupplier clock;
+
+    public PlaceholderCache(long ttlMs, int maxEntries) {
+        this(ttlMs, maxEntries, System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock current time in milliseconds
+     */
+    public PlaceholderCache(long ttlMs, int maxEntries, LongSupplier clock) {
+        this.ttlMs = ttlMs;
+        this.clock = clock;
+        int max = Math.max(1, maxEntries);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > max;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value, starting a refresh if it has expired.
+     * Never waits: a value that is not cached yet is returned as soon as the loader
+     * completes if it already has, otherwise {@code fallback} is returned.
+     */
+    public String get(Key key, Supplier<CompletableFuture<String>> loader, String fallback) {
+        Entry e;
+        synchronized (entries) {
+            e = entries.get(key);
+            if (e == null) {
+                e = new Entry();
+                e.value = fallback;
+                entries.put(key, e);
+            }
+        }
+
+        if (clock.getAsLong() < e.expiresAt) return e.value;
+
+        if (e.refreshing.compareAndSet(false, true)) {
+            Entry entry = e;
+            CompletableFuture<String> next;
+            try {
+                next = loader.get();
+            } catch (RuntimeException ex) {
+                next = CompletableFuture.failedFuture(ex);
+            }
+            next.whenComplete((value, ex) -> {
+                // a failed load keeps the old value until the next expiry
+                if (ex == null) entry.value = value;
+                entry.expiresAt = clock.getAsLong() + ttlMs;
+                entry.refreshing.set(false);
+            });
+        }
+        return e.value;
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+}
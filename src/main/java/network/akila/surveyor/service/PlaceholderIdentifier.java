@@ -0,0 +1,95 @@
+package network.akila.surveyor.service;
+
+import java.util.List;
+
+/**
+ * A placeholder identifier parsed into its type, poll id and option index.
+ * Malformed numbers parse to -1, which resolves to the type's fallback value.
+ */
+@SuppressWarnings("unused")
+public record PlaceholderIdentifier(Type type, long pollId, int optionIndex) {
+
+    public enum Type {
+        ACTIVE_POLLS(null, false),
+        POLL_QUESTION("N/A", false),
+        POLL_STATUS("N/A", false),
+        POLL_VOTES("0", false),
+        POLL_CLOSES_IN("N/A", false),
+        POLL_OPTION("N/A", false),
+        POLL_OPTION_VOTES("0", false),
+        HAS_VOTED("no", true),
+        MY_VOTE_INDEX("-1", true),
+        MY_VOTE_TEXT("none", true),
+        UNKNOWN(null, false);
+
+        private final String fallback;
+        private final boolean playerScoped;
+
+        Type(String fallback, boolean playerScoped) {
+            this.fallback = fallback;
+            this.playerScoped = playerScoped;
+        }
+
+        /**
+         * Value shown when the poll or option does not exist or the identifier is malformed.
+         */
+        public String fallback() {
+            return fallback;
+        }
+
+        public boolean isPlayerScoped() {
+            return playerScoped;
+        }
+    }
+
+    private record Prefix(String text, Type type, boolean withOption) {
+    }
+
+    // poll_option_votes_ must be tried before poll_option_, which is a prefix of it
+    private static final List<Prefix> PREFIXES = List.of(
+            new Prefix("poll_option_votes_", Type.POLL_OPTION_VOTES, true),
+            new Prefix("poll_option_", Type.POLL_OPTION, true),
+            new Prefix("poll_question_", Type.POLL_QUESTION, false),
+            new Prefix("poll_status_", Type.POLL_STATUS, false),
+            new Prefix("poll_votes_", Type.POLL_VOTES, false),
+            new Prefix("poll_closes_in_", Type.POLL_CLOSES_IN, false),
+            new Prefix("has_voted_", Type.HAS_VOTED, false),
+            new Prefix("my_vote_index_", Type.MY_VOTE_INDEX, false),
+            new Prefix("my_vote_text_", Type.MY_VOTE_TEXT, false)
+    );
+
+    private static final PlaceholderIdentifier ACTIVE = new PlaceholderIdentifier(Type.ACTIVE_POLLS, -1, -1);
+    private static final PlaceholderIdentifier UNKNOWN = new PlaceholderIdentifier(Type.UNKNOWN, -1, -1);
+
+    public static PlaceholderIdentifier parse(String idf) {
+        if ("active_polls".equals(idf)) return ACTIVE;
+
+        for (Prefix p : PREFIXES) {
+            if (!idf.startsWith(p.text())) continue;
+            int start = p.text().length();
+            if (!p.withOption()) {
+                return new PlaceholderIdentifier(p.type(), parseNumber(idf, start, idf.length()), -1);
+            }
+            int sep = idf.indexOf('_', start);
+            if (sep < 0) return new PlaceholderIdentifier(p.type(), -1, -1);
+            long id = parseNumber(idf, start, sep);
+            long idx = parseNumber(idf, sep + 1, idf.length());
+            return new PlaceholderIdentifier(p.type(), id, idx <= Integer.MAX_VALUE ? (int) idx : -1);
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Parses a non-negative decimal number from {@code s[from, to)}, or returns -1.
+     */
+    private static long parseNumber(String s, int from, int to) {
+        if (from >= to || to - from > 18) return -1;
+        long n = 0;
+        for (int i = from; i < to; i++) {
+            char ch = s.charAt(i);
+            if (ch < '0' || ch > '9') return -1;
+            n = n * 10 + (ch - '0');
+        }
+        return n;
+    }
+}
@@ -0,0 +1,24 @@
+package network.akila.surveyor.service;
+
+import java.util.UUID;
+
+/**
+ * Notified when a poll is created, closed, removed or receives a vote.
+ * Called on whichever thread finished the change, usually a database thread.
+ */
+@FunctionalInterface
+public interface PollChangeListener {
+
+    enum Change {
+        CREATED, CLOSED, REMOVED, VOTED
+    }
+
+    void pollChanged(long pollId, Change change);
+
+    /**
+     * An accepted vote. Override to use the voter and option; by default reported as {@link Change#VOTED}.
+     */
+    default void voted(long pollId, UUID player, int optionIndex) {
+        pollChanged(pollId, Change.VOTED);
+    }
+}
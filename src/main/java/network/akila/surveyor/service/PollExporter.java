@@ -0,0 +1,206 @@
+package network.akila.surveyor.service;
+
+import network.akila.surveyor.model.Poll;
+import network.akila.surveyor.model.PollOption;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongConsumer;
+
+/**
+ * Writes every vote of a poll to a file, one row at a time.
+ * <p>
+ * Votes are streamed from the database straight into a buffered file channel on the DB
+ * executor, so memory use stays flat however large the poll is. The file is written under
+ * a temporary name and moved into place once complete.
+ */
+@SuppressWarnings("unused")
+public final class PollExporter {
+
+    public enum Format {
+        CSV("csv"), NDJSON("ndjson");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public static Optional<Format> parse(String s) {
+            for (Format f : values()) {
+                if (f.extension.equalsIgnoreCase(s)) return Optional.of(f);
+            }
+            return Optional.empty();
+        }
+    }
+
+    public record Result(Path file, long rows) {
+    }
+
+    public static final long PROGRESS_EVERY = 25_000L;
+    private static final int BUFFER_CHARS = 64 * 1024;
+    private static final DateTimeFormatter FILE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final PollService service;
+    private final Path directory;
+
+    /**
+     * @param directory where export files are written; created on first use
+     */
+    public PollExporter(PollService service, Path directory) {
+        this.service = service;
+        this.directory = directory;
+    }
+
+    /**
+     * Exports a poll's votes.
+     *
+     * @param progress called with the rows written so far, every {@link #PROGRESS_EVERY} rows
+     * @return the finished file, or empty if the poll does not exist
+     */
+    public CompletableFuture<Optional<Result>> export(long pollId, Format format, LongConsumer progress) {
+        return service.find(pollId).thenCompose(found -> {
+            if (found.isEmpty()) return CompletableFuture.completedFuture(Optional.<Result>empty());
+            Poll poll = found.get();
+
+            Path target = directory.resolve("poll-" + pollId + "-" + LocalDateTime.now().format(FILE_STAMP) + "." + format.extension());
+            Path part = target.resolveSibling(target.getFileName() + ".part");
+            Writer out;
+            try {
+                out = open(part, format);
+            } catch (IOException e) {
+                try {
+                    Files.deleteIfExists(part);
+                } catch (IOException ignored) {
+                }
+                return CompletableFuture.failedFuture(new UncheckedIOException("Failed to open " + part, e));
+            }
+
+            List<PollOption> options = poll.getOptions();
+            long[] written = {0};
+            return service.streamVotes(pollId, vote -> {
+                String text = vote.getOptionIndex() < options.size() ? options.get(vote.getOptionIndex()).getText() : "";
+                try {
+                    if (format == Format.CSV) {
+                        out.write(Long.toString(pollId));
+                        out.write(',');
+                        out.write(vote.getPlayerUuid().toString());
+                        out.write(',');
+                        out.write(Integer.toString(vote.getOptionIndex()));
+                        out.write(',');
+                        writeCsv(out, text);
+                        out.write(',');
+                        out.write(vote.getCreatedAt().toString());
+                        out.write('\n');
+                    } else {
+                        out.write("{\"poll_id\":");
+                        out.write(Long.toString(pollId));
+                        out.write(",\"player_uuid\":\"");
+                        out.write(vote.getPlayerUuid().toString());
+                        out.write("\",\"option_index\":");
+                        out.write(Integer.toString(vote.getOptionIndex()));
+                        out.write(",\"option_text\":");
+                        writeJson(out, text);
+                        out.write(",\"created_at\":\"");
+                        out.write(vote.getCreatedAt().toString());
+                        out.write("\"}\n");
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (++written[0] % PROGRESS_EVERY == 0) progress.accept(written[0]);
+            }).handle((rows, ex) -> {
+                try {
+                    out.close();
+                    if (ex == null) {
+                        Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+                        return Optional.of(new Result(target, rows));
+                    }
+                } catch (IOException e) {
+                    ex = e;
+                }
+                try {
+                    Files.deleteIfExists(part);
+                } catch (IOException ignored) {
+                }
+                throw new RuntimeException("Failed to export poll " + pollId, ex);
+            });
+        });
+    }
+
+    /**
+     * Opens the part file and writes the header. The channel is closed if either step fails;
+     * on success the returned writer owns it, since the votes are written asynchronously.
+     */
+    private Writer open(Path part, Format format) throws IOException {
+        Files.createDirectories(directory);
+        FileChannel channel = FileChannel.open(part,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            Writer out = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER_CHARS);
+            if (format == Format.CSV) out.write("poll_id,player_uuid,option_index,option_text,created_at\n");
+            return out;
+        } catch (IOException | RuntimeException e) {
+            try {
+                channel.close();
+            } catch (IOException closeEx) {
+                e.addSuppressed(closeEx);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Writes a CSV cell. Text that a spreadsheet would read as a formula gets a leading
+     * apostrophe, so an option like {@code =HYPERLINK(...)} stays plain text.
+     */
+    private static void writeCsv(Writer out, String s) throws IOException {
+        if (!s.isEmpty() && "=+-@\t\r".indexOf(s.charAt(0)) >= 0) s = "'" + s;
+        boolean quote = s.indexOf(',') >= 0 || s.indexOf('"') >= 0 || s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0;
+        if (!quote) {
+            out.write(s);
+            return;
+        }
+        out.write('"');
+        out.write(s.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    private static void writeJson(Writer out, String s) throws IOException {
+        out.write('"');
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            switch (ch) {
+                case '"' -> out.write("\\\"");
+                case '\\' -> out.write("\\\\");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\t' -> out.write("\\t");
+                default -> {
+                    if (ch < 0x20) out.write(String.format(Locale.ROOT, "\\u%04x", (int) ch));
+                    else out.write(ch);
+                }
+            }
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,79 @@
+package network.akila.surveyor.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Sorted set of known poll ids, kept in memory for tab completion and existence checks.
+ */
+@SuppressWarnings("unused")
+public final class PollIdIndex {
+
+    private final ConcurrentSkipListSet<Long> ids = new ConcurrentSkipListSet<>();
+
+    public void add(long id) {
+        ids.add(id);
+    }
+
+    public void addAll(Collection<Long> all) {
+        ids.addAll(all);
+    }
+
+    public void remove(long id) {
+        ids.remove(id);
+    }
+
+    public void clear() {
+        ids.clear();
+    }
+
+    public boolean contains(long id) {
+        return ids.contains(id);
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    /**
+     * Ids whose decimal form starts with {@code prefix}, shortest first.
+     * Each id length is one range lookup, so this never scans the whole set.
+     */
+    public List<Long> matching(String prefix, int limit) {
+        List<Long> out = new ArrayList<>(Math.min(limit, 64));
+        if (prefix == null || prefix.isEmpty()) {
+            for (Long id : ids) {
+                if (out.size() >= limit) break;
+                out.add(id);
+            }
+            return out;
+        }
+
+        long p = 0;
+        if (prefix.length() > 18) return out;
+        for (int i = 0; i < prefix.length(); i++) {
+            char ch = prefix.charAt(i);
+            if (ch < '0' || ch > '9') return out;
+            p = p * 10 + (ch - '0');
+        }
+        // ids are never written with a leading zero
+        if (prefix.length() > 1 && prefix.charAt(0) == '0') return out;
+
+        long scale = 1;
+        while (out.size() < limit) {
+            long lo = p * scale;
+            long hi = (p + 1) * scale;
+            NavigableSet<Long> range = ids.subSet(lo, true, hi, false);
+            for (Long id : range) {
+                if (out.size() >= limit) break;
+                out.add(id);
+            }
+            if (p == 0 || scale > Long.MAX_VALUE / 10 || hi > Long.MAX_VALUE / 10) break;
+            scale *= 10;
+        }
+        return out;
+    }
+}
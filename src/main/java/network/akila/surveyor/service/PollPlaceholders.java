@@ -1,21 +1,18 @@
 package network.akila.surveyor.service;
 
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
-import network.akila.surveyor.Surveyor;
+import network.akila.surveyor.metrics.Metrics;
+import network.akila.surveyor.metrics.Timer;
 import network.akila.surveyor.model.Poll;
-import network.akila.surveyor.model.PollOption;
 import network.akila.surveyor.util.DurationParser;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -38,17 +35,28 @@ import java.util.concurrent.ConcurrentHashMap;
  * %surveyor_has_voted_<id>%             → "yes"/"no"
  * %surveyor_my_vote_index_<id>%         → -1 if none
  * %surveyor_my_vote_text_<id>%          → "none" if none
+ * <p>
+ * Values come from the {@link PollSnapshot}, so a request never waits on the database.
+ * Polls outside the snapshot's recent window are loaded in the background and served from
+ * the placeholder cache.
  */
 public class PollPlaceholders extends PlaceholderExpansion {
 
     private final PollService pollService;
+    private final PollSnapshotter snapshots;
+    private final PlaceholderCache cache;
+    private final Map<String, PlaceholderIdentifier> compiled = new ConcurrentHashMap<>();
+    private static final int MAX_COMPILED = 4_096;
+    private static final Timer RESOLVE_TIMER = Metrics.timer("placeholders.resolve");
+
+    public PollPlaceholders(PollService pollService, PollSnapshotter snapshots) {
+        this(pollService, snapshots, new PlaceholderCache(PlaceholderCache.DEFAULT_TTL_MS, PlaceholderCache.DEFAULT_MAX_ENTRIES));
+    }
 
-    private final Map<String, String> cache = new ConcurrentHashMap<>();
-    private volatile long lastRefreshMs = 0L;
-    private static final long CACHE_TTL_MS = 1_000L;
-
-    public PollPlaceholders(PollService pollService) {
+    public PollPlaceholders(PollService pollService, PollSnapshotter snapshots, PlaceholderCache cache) {
         this.pollService = pollService;
+        this.snapshots = snapshots;
+        this.cache = cache;
     }
 
     @Override
@@ -68,138 +76,100 @@ public class PollPlaceholders extends PlaceholderExpansion {
 
     @Override
     public String onPlaceholderRequest(Player player, @NotNull String identifier) {
-        long now = System.currentTimeMillis();
-        if (now - lastRefreshMs > CACHE_TTL_MS) {
-            cache.clear();
-            lastRefreshMs = now;
+        long start = System.nanoTime();
+        try {
+            return resolve(player, identifier);
+        } finally {
+            RESOLVE_TIMER.record(System.nanoTime() - start);
         }
-        return cache.computeIfAbsent(identifier, key -> compute(player, key));
     }
 
-    private String compute(Player player, String idf) {
-        if ("active_polls".equals(idf)) {
-            int active = (int) safeJoin(pollService.findAll(), List.<Poll>of()).stream()
-                    .filter(p -> !safeJoin(pollService.isClosed(p.getId()), true))
-                    .count();
-            return String.valueOf(active);
-        }
-
-        if (idf.startsWith("poll_question_")) {
-            Long id = parseLongTail(idf, "poll_question_");
-            if (id == null) return "N/A";
-            Optional<Poll> p = safeJoin(pollService.find(id), Optional.empty());
-            return p.map(Poll::getQuestion).orElse("N/A");
-        }
-
-        if (idf.startsWith("poll_status_")) {
-            Long id = parseLongTail(idf, "poll_status_");
-            if (id == null) return "N/A";
-            return safeJoin(pollService.isClosed(id), true) ? "closed" : "active";
-        }
+    private String resolve(Player player, String identifier) {
+        PlaceholderIdentifier idf = compile(identifier);
+        PlaceholderIdentifier.Type type = idf.type();
+        if (type == PlaceholderIdentifier.Type.UNKNOWN) return null;
 
-        if (idf.startsWith("poll_votes_")) {
-            Long id = parseLongTail(idf, "poll_votes_");
-            if (id == null) return "0";
-            int total = 0;
-            for (int c : safeJoin(pollService.optionCounts(id), new int[0])) total += c;
-            return String.valueOf(total);
+        if (!type.isPlayerScoped()) {
+            return cache.get(PlaceholderCache.Key.global(identifier),
+                    () -> withPoll(snapshots.current(), idf.pollId()).thenApply(snap -> resolveGlobal(snap, idf)),
+                    type.fallback());
         }
+        if (player == null) return type.fallback();
+        return cache.get(new PlaceholderCache.Key(player.getUniqueId(), identifier),
+                () -> resolvePlayer(snapshots.current(), player, idf), type.fallback());
+    }
 
-        if (idf.startsWith("poll_closes_in_")) {
-            Long id = parseLongTail(idf, "poll_closes_in_");
-            if (id == null) return "N/A";
-            Optional<Poll> p = safeJoin(pollService.find(id), Optional.empty());
-            if (p.isEmpty()) return "N/A";
-            Instant closesAt = p.get().getClosesAt();
-            if (closesAt == null) return "none";
-            Duration d = Duration.between(Instant.now(), closesAt);
-            if (d.isNegative() || d.isZero()) return "ended";
-            return DurationParser.format(d);
-        }
+    private PlaceholderIdentifier compile(String identifier) {
+        PlaceholderIdentifier idf = compiled.get(identifier);
+        if (idf != null) return idf;
+        idf = PlaceholderIdentifier.parse(identifier);
+        // identifiers come from other plugins' configs, so this stays small unless something is generating them
+        if (compiled.size() < MAX_COMPILED) compiled.put(identifier, idf);
+        return idf;
+    }
 
-        if (idf.startsWith("poll_option_")) {
-            String[] parts = idf.split("_");
-            if (parts.length == 4) {
-                Long id = parseLong(parts[2]);
-                Integer idx = parseInt(parts[3]);
-                if (id == null || idx == null || idx < 0) return "N/A";
-                List<PollOption> opts = safeJoin(pollService.options(id), List.<PollOption>of());
-                return (idx < opts.size()) ? opts.get(idx).getText() : "N/A";
+    private String resolveGlobal(PollSnapshot snap, PlaceholderIdentifier idf) {
+        long id = idf.pollId();
+        Instant now = Instant.now();
+        return switch (idf.type()) {
+            case ACTIVE_POLLS -> String.valueOf(snap.activeCount(now));
+            case POLL_QUESTION -> snap.poll(id).map(Poll::getQuestion).orElse("N/A");
+            case POLL_STATUS -> snap.poll(id).map(p -> p.isClosed(now)).orElse(true) ? "closed" : "active";
+            case POLL_VOTES -> String.valueOf(snap.total(id));
+            case POLL_CLOSES_IN -> {
+                Optional<Poll> p = snap.poll(id);
+                if (p.isEmpty()) yield "N/A";
+                Instant closesAt = p.get().getClosesAt();
+                if (closesAt == null) yield "none";
+                Duration d = Duration.between(now, closesAt);
+                yield d.isNegative() || d.isZero() ? "ended" : DurationParser.format(d);
             }
-        }
-
-        if (idf.startsWith("poll_option_votes_")) {
-            String[] parts = idf.split("_");
-            if (parts.length == 5) {
-                Long id = parseLong(parts[3]);
-                Integer idx = parseInt(parts[4]);
-                if (id == null || idx == null || idx < 0) return "0";
-                return String.valueOf(safeJoin(pollService.countVotes(id, idx), 0));
+            case POLL_OPTION -> {
+                String text = snap.optionText(id, idf.optionIndex());
+                yield text != null ? text : "N/A";
             }
-        }
-
-        if (idf.startsWith("has_voted_")) {
-            if (player == null) return "no";
-            Long id = parseLongTail(idf, "has_voted_");
-            if (id == null) return "no";
-            return safeJoin(pollService.hasVoted(id, player.getUniqueId()), false) ? "yes" : "no";
-        }
-
-        if (idf.startsWith("my_vote_index_")) {
-            if (player == null) return "-1";
-            Long id = parseLongTail(idf, "my_vote_index_");
-            if (id == null) return "-1";
-            return String.valueOf(safeJoin(pollService.getVote(id, player.getUniqueId()), Optional.of(-1)).orElse(-1));
-        }
-
-        if (idf.startsWith("my_vote_text_")) {
-            if (player == null) return "none";
-            Long id = parseLongTail(idf, "my_vote_text_");
-            if (id == null) return "none";
-            Optional<Integer> idxOpt = safeJoin(pollService.getVote(id, player.getUniqueId()), Optional.of(-1));
-            if (idxOpt.isEmpty() || idxOpt.get() < 0) return "none";
-            int idx = idxOpt.get();
-            List<PollOption> opts = safeJoin(pollService.options(id), List.<PollOption>of());
-            return (idx < opts.size()) ? opts.get(idx).getText() : "none";
-        }
-
-        return null;
+            case POLL_OPTION_VOTES -> String.valueOf(snap.count(id, idf.optionIndex()));
+            default -> idf.type().fallback();
+        };
     }
 
-    // Helpers
-
-    private <T> T safeJoin(CompletableFuture<T> future, T fallback) {
-        try {
-            return future.join();
-        } catch (CompletionException | CancellationException e) {
-            return fallback;
-        } catch (Exception e) {
-            Surveyor.getInstance().getLogger().warning("Failed to join future: " + e.getMessage());
-            return fallback;
-        }
-    }
+    private CompletableFuture<String> resolvePlayer(PollSnapshot snap, Player player, PlaceholderIdentifier idf) {
+        long id = idf.pollId();
+        if (id < 0) return CompletableFuture.completedFuture(idf.type().fallback());
 
-    private Long parseLongTail(String full, String prefix) {
-        try {
-            return Long.parseLong(full.substring(prefix.length()));
-        } catch (Exception e) {
-            return null;
-        }
+        return withPoll(snap, id).thenCompose(s -> voteOf(s, player, id).thenApply(idx -> switch (idf.type()) {
+            case HAS_VOTED -> idx >= 0 ? "yes" : "no";
+            case MY_VOTE_INDEX -> String.valueOf(idx);
+            case MY_VOTE_TEXT -> {
+                String text = s.optionText(id, idx);
+                yield text != null ? text : "none";
+            }
+            default -> idf.type().fallback();
+        }));
     }
 
-    private Long parseLong(String s) {
-        try {
-            return Long.parseLong(s);
-        } catch (Exception e) {
-            return null;
-        }
+    /**
+     * The snapshot if it holds the poll, otherwise a one-poll snapshot loaded through the service,
+     * so polls outside the recent window resolve like the rest. Unknown polls keep the snapshot.
+     */
+    private CompletableFuture<PollSnapshot> withPoll(PollSnapshot snap, long pollId) {
+        if (pollId < 0 || snap.poll(pollId).isPresent()) return CompletableFuture.completedFuture(snap);
+        return pollService.find(pollId).thenCompose(found -> {
+            if (found.isEmpty()) return CompletableFuture.completedFuture(snap);
+            Poll poll = found.get();
+            return pollService.optionCounts(pollId).thenApply(counts ->
+                    new PollSnapshot(Map.of(pollId, poll), Map.of(pollId, counts), Map.of(), snap.getBuiltAt()));
+        });
     }
 
-    private Integer parseInt(String s) {
-        try {
-            return Integer.parseInt(s);
-        } catch (Exception e) {
-            return null;
+    /**
+     * The player's vote from the snapshot, or a point lookup if the snapshot does not cover
+     * them or the poll yet.
+     */
+    private CompletableFuture<Integer> voteOf(PollSnapshot snap, Player player, long pollId) {
+        if (snap.covers(player.getUniqueId()) && snap.poll(pollId).isPresent()) {
+            return CompletableFuture.completedFuture(snap.vote(player.getUniqueId(), pollId));
         }
+        return pollService.getVote(pollId, player.getUniqueId()).thenApply(v -> v.orElse(-1));
     }
 }
@@ -1,17 +1,34 @@
 package network.akila.surveyor.service;
 
+import network.akila.surveyor.metrics.Metrics;
 import network.akila.surveyor.model.Poll;
+import network.akila.surveyor.model.PollFilter;
 import network.akila.surveyor.model.PollOption;
+import network.akila.surveyor.model.PollPage;
+import network.akila.surveyor.model.PollSort;
+import network.akila.surveyor.model.PollViewModel;
 import network.akila.surveyor.model.Vote;
+import network.akila.surveyor.model.VoteCounts;
+import network.akila.surveyor.model.VoteResult;
 import network.akila.surveyor.persistence.dao.PollDAO;
 import network.akila.surveyor.persistence.dao.PollOptionDAO;
 import network.akila.surveyor.persistence.dao.VoteDAO;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Operations for polls.
@@ -19,92 +36,305 @@ import java.util.concurrent.CompletableFuture;
  */
 @SuppressWarnings("unused")
 public class PollService {
+    public static final String BENCHMARK_METRICS = "benchmark.";
+
     private final PollDAO polls;
     private final PollOptionDAO options;
     private final VoteDAO votes;
+    private final VoteTally tally;
+    private final PollIdIndex ids = new PollIdIndex();
+    private final Set<Long> hidden = ConcurrentHashMap.newKeySet();
+    private final List<PollChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicInteger writesInFlight = new AtomicInteger();
+    private volatile boolean writesPaused;
 
     public PollService(PollDAO polls, PollOptionDAO options, VoteDAO votes) {
         this.polls = polls;
         this.options = options;
         this.votes = votes;
+        this.tally = new VoteTally(this::loadCounts);
+    }
+
+    /**
+     * Fills the id index from the database. Ids added or removed meanwhile are kept.
+     */
+    public CompletableFuture<Integer> loadIds() {
+        return Metrics.timer("service.loadIds").time(() -> polls.findAllIds().thenApply(all -> {
+            ids.addAll(all);
+            return ids.size();
+        }));
+    }
+
+    /**
+     * Drops the id index and cached counts and reloads the index, after the database was
+     * changed behind the service's back.
+     */
+    public CompletableFuture<Integer> reload() {
+        ids.clear();
+        tally.clear();
+        return loadIds();
+    }
+
+    /**
+     * Makes every write fail until {@link #resumeWrites()}, then waits for writes already
+     * running to finish. Call off the main thread.
+     *
+     * @return false if writes were still running when the timeout passed
+     */
+    public boolean pauseWrites(Duration timeout) throws InterruptedException {
+        writesPaused = true;
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (writesInFlight.get() > 0) {
+            if (System.nanoTime() > deadline) return false;
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    public void resumeWrites() {
+        writesPaused = false;
+    }
+
+    private <T> CompletableFuture<T> write(Supplier<CompletableFuture<T>> op) {
+        if (writesPaused) return CompletableFuture.failedFuture(new IllegalStateException("Poll writes are paused"));
+        writesInFlight.incrementAndGet();
+        if (writesPaused) {
+            writesInFlight.decrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalStateException("Poll writes are paused"));
+        }
+        CompletableFuture<T> f;
+        try {
+            f = op.get();
+        } catch (RuntimeException e) {
+            writesInFlight.decrementAndGet();
+            throw e;
+        }
+        return f.whenComplete((v, ex) -> writesInFlight.decrementAndGet());
+    }
+
+    public void addListener(PollChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(PollChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void fireChanged(long pollId, PollChangeListener.Change change) {
+        if (hidden.contains(pollId)) return;
+        for (PollChangeListener l : listeners) {
+            l.pollChanged(pollId, change);
+        }
+    }
+
+    private void fireVoted(long pollId, UUID player, int optionIndex) {
+        if (hidden.contains(pollId)) return;
+        for (PollChangeListener l : listeners) {
+            l.voted(pollId, player, optionIndex);
+        }
     }
 
     public CompletableFuture<Poll> create(String question, Instant closesAt, List<String> optionTexts) {
-        return polls.createPoll(question, closesAt, optionTexts);
+        return Metrics.timer("service.create").time(() -> write(() -> polls.createPoll(question, closesAt, optionTexts)).thenApply(poll -> {
+            ids.add(poll.getId());
+            fireChanged(poll.getId(), PollChangeListener.Change.CREATED);
+            return poll;
+        }));
     }
 
+    /**
+     * Creates a poll that stays out of listings, placeholders, completion and change
+     * notifications. Used for diagnostics; remove it with {@link #remove(long)}.
+     */
+    public CompletableFuture<Poll> createHidden(String question, Instant closesAt, List<String> optionTexts) {
+        return Metrics.timer(BENCHMARK_METRICS + "service.createHidden").time(() -> write(() -> polls.createPoll(question, closesAt, optionTexts, true)).thenApply(poll -> {
+            hidden.add(poll.getId());
+            return poll;
+        }));
+    }
+
+    /**
+     * Deletes hidden polls left behind by a run that ended before it could remove them,
+     * such as a benchmark interrupted by a shutdown. Hidden ids are only tracked in memory,
+     * so call this once at startup, before anything creates a hidden poll.
+     *
+     * @return the number of polls deleted
+     */
+    public CompletableFuture<Integer> removeLeftoverHidden() {
+        return Metrics.timer("service.removeLeftoverHidden").time(() -> write(polls::deleteHidden));
+    }
+
+    /**
+     * Loads a poll. Hidden polls are reported as missing.
+     */
     public CompletableFuture<Optional<Poll>> find(long id) {
-        return polls.findById(id);
+        return Metrics.timer("service.find").time(() -> polls.findById(id));
+    }
+
+    /**
+     * Whether a poll exists. Answered from the id index when possible,
+     * otherwise by a primary key lookup.
+     */
+    public CompletableFuture<Boolean> exists(long id) {
+        return Metrics.timer("service.exists").time(() -> {
+            if (ids.contains(id)) return CompletableFuture.completedFuture(true);
+            return polls.exists(id).thenApply(found -> {
+                if (found) ids.add(id);
+                return found;
+            });
+        });
+    }
+
+    /**
+     * Poll ids starting with the typed prefix, for tab completion. Never touches the database.
+     */
+    public List<Long> suggestIds(String prefix, int limit) {
+        return ids.matching(prefix, limit);
     }
 
     public CompletableFuture<List<Poll>> findAll() {
-        return polls.findAll();
+        return Metrics.timer("service.findAll").time(polls::findAll);
+    }
+
+    /**
+     * Open polls and polls that closed at or after {@code since}, with their options.
+     */
+    public CompletableFuture<List<Poll>> findClosingSince(Instant since) {
+        return Metrics.timer("service.findClosingSince").time(() -> polls.findClosingSince(since));
+    }
+
+    /**
+     * One page of poll summaries. Pass the previous page's cursor to continue, or null to start.
+     */
+    public CompletableFuture<PollPage> list(PollFilter filter, PollSort sort, PollPage.Cursor cursor, int pageSize) {
+        return Metrics.timer("service.list").time(() -> polls.listSummaries(filter, sort, cursor, pageSize, Instant.now()));
+    }
+
+    public CompletableFuture<Integer> count(PollFilter filter) {
+        return Metrics.timer("service.count").time(() -> polls.countSummaries(filter, Instant.now()));
     }
 
     public CompletableFuture<Void> close(long id) {
-        return polls.setManuallyClosed(id, true);
+        return Metrics.timer("service.close").time(() -> write(() -> polls.setManuallyClosed(id, true))
+                .thenRun(() -> fireChanged(id, PollChangeListener.Change.CLOSED)));
     }
 
     public CompletableFuture<Void> remove(long id) {
-        return polls.delete(id);
+        String prefix = hidden.contains(id) ? BENCHMARK_METRICS : "";
+        return Metrics.timer(prefix + "service.remove").time(() -> write(() -> polls.delete(id)
+                .whenComplete((v, ex) -> tally.invalidate(id))
+                .thenRun(() -> {
+                    ids.remove(id);
+                    fireChanged(id, PollChangeListener.Change.REMOVED);
+                    hidden.remove(id);
+                })));
     }
 
-    public CompletableFuture<Void> vote(long pollId, UUID player, int optionIndex) {
-        return polls.findById(pollId).thenCompose(optPoll -> {
-            Poll p = optPoll.orElseThrow(() -> new IllegalArgumentException("Poll not found: " + pollId));
+    /**
+     * Casts a first vote on an open poll in one conditional write.
+     * Votes on hidden polls are recorded under {@link #BENCHMARK_METRICS} instead of the
+     * regular vote metrics, so diagnostics do not show up as player traffic.
+     */
+    public CompletableFuture<VoteResult> vote(long pollId, UUID player, int optionIndex) {
+        long submittedAt = System.nanoTime();
+        String prefix = hidden.contains(pollId) ? BENCHMARK_METRICS : "";
+        return Metrics.timer(prefix + "service.vote").time(() -> write(() -> votes.castVote(pollId, player, optionIndex)).thenApply(result -> {
+            Metrics.increment(prefix + "votes." + result.name().toLowerCase(Locale.ROOT));
+            if (result == VoteResult.ACCEPTED) {
+                tally.increment(pollId, optionIndex, submittedAt);
+                fireVoted(pollId, player, optionIndex);
+            }
+            return result;
+        }));
+    }
 
-            boolean closed = p.isManuallyClosed() ||
-                    (p.getClosesAt() != null && !Instant.now().isBefore(p.getClosesAt()));
-            if (closed) throw new IllegalStateException("Poll is closed");
+    /**
+     * Loads a poll with its options, counts and the viewer's vote.
+     * The lookups run concurrently; counts come from the in-memory tally.
+     *
+     * @return the model, or empty if the poll does not exist
+     */
+    public CompletableFuture<Optional<PollViewModel>> viewModel(long pollId, UUID viewer) {
+        return Metrics.timer("service.viewModel").time(() -> loadViewModel(pollId, viewer));
+    }
 
-            return hasVoted(pollId, player).thenCompose(already -> {
-                if (already) throw new IllegalStateException("You have already voted");
-                return votes.upsert(pollId, player, optionIndex);
-            });
+    private CompletableFuture<Optional<PollViewModel>> loadViewModel(long pollId, UUID viewer) {
+        CompletableFuture<Optional<Integer>> vote = votes.findVote(pollId, viewer);
+        CompletableFuture<VoteCounts> counts = results(pollId);
+        return polls.findById(pollId).thenCompose(poll -> {
+            if (poll.isEmpty()) return CompletableFuture.completedFuture(Optional.<PollViewModel>empty());
+            Poll p = poll.get();
+            return vote.thenCombine(counts, (myVote, c) -> Optional.of(new PollViewModel(p, p.getOptions(), c, myVote)));
         });
     }
 
     public CompletableFuture<Boolean> hasVoted(long pollId, UUID player) {
-        return votes.hasVoted(pollId, player);
+        return Metrics.timer("service.hasVoted").time(() -> votes.hasVoted(pollId, player));
     }
 
     public CompletableFuture<Optional<Integer>> getVote(long pollId, UUID player) {
-        return votes.findByPoll(pollId)
-                .thenApply(list -> list.stream()
-                        .filter(v -> v.getPlayerUuid().equals(player))
-                        .map(Vote::getOptionIndex)
-                        .findFirst());
+        return Metrics.timer("service.getVote").time(() -> votes.findVote(pollId, player));
+    }
+
+    /**
+     * Every vote of the given players, keyed by player then poll id.
+     * Players without votes map to an empty map.
+     */
+    public CompletableFuture<Map<UUID, Map<Long, Integer>>> votesOf(Collection<UUID> players) {
+        return Metrics.timer("service.votesOf").time(() -> votes.findByPlayers(players));
+    }
+
+    /**
+     * Streams every vote of a poll to {@code sink} on the DB executor, without loading them all.
+     *
+     * @return the number of votes read
+     */
+    public CompletableFuture<Long> streamVotes(long pollId, Consumer<Vote> sink) {
+        return Metrics.timer("service.streamVotes").time(() -> votes.streamByPoll(pollId, sink));
     }
 
     public CompletableFuture<Boolean> isClosed(long pollId) {
-        return polls.findById(pollId).thenApply(optPoll -> {
+        return Metrics.timer("service.isClosed").time(() -> polls.findById(pollId).thenApply(optPoll -> {
             Poll p = optPoll.orElse(null);
             if (p == null) return true;
             if (p.isManuallyClosed()) return true;
             return p.getClosesAt() != null && !Instant.now().isBefore(p.getClosesAt());
-        });
+        }));
     }
 
+    /**
+     * Votes for one option, answered from the in-memory tally.
+     */
     public CompletableFuture<Integer> countVotes(long pollId, int optionIndex) {
-        return votes.countVotes(pollId, optionIndex);
+        return Metrics.timer("service.countVotes").time(() -> tally.count(pollId, optionIndex));
     }
 
+    /**
+     * Votes per option, answered from the in-memory tally.
+     */
     public CompletableFuture<int[]> optionCounts(long pollId) {
-        return options.findByPollId(pollId).thenCompose(opts -> {
-            CompletableFuture<?>[] futures = new CompletableFuture[opts.size()];
-            int[] counts = new int[opts.size()];
-
-            for (int i = 0; i < opts.size(); i++) {
-                final int idx = i;
-                futures[i] = votes.countVotes(pollId, idx)
-                        .thenAccept(count -> counts[idx] = count);
-            }
+        return Metrics.timer("service.optionCounts").time(() -> tally.counts(pollId));
+    }
 
-            return CompletableFuture.allOf(futures).thenApply(v -> counts);
-        });
+    /**
+     * Votes per option plus the total, answered from the in-memory tally.
+     */
+    public CompletableFuture<VoteCounts> results(long pollId) {
+        return Metrics.timer("service.results").time(() -> tally.counts(pollId).thenApply(counts -> new VoteCounts(pollId, counts)));
+    }
+
+    /**
+     * Votes per option if the tally already holds them, or null. Never touches the database.
+     */
+    public int[] loadedCounts(long pollId) {
+        return tally.peek(pollId);
+    }
+
+    private CompletableFuture<int[]> loadCounts(long pollId) {
+        return votes.countByOption(pollId).thenApply(VoteCounts::getCounts);
     }
 
     public CompletableFuture<List<PollOption>> options(long pollId) {
-        return options.findByPollId(pollId);
+        return Metrics.timer("service.options").time(() -> options.findByPollId(pollId));
     }
 }
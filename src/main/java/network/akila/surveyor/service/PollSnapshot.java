@@ -0,0 +1,146 @@
+package network.akila.surveyor.service;
+
+import network.akila.surveyor.model.Poll;
+import network.akila.surveyor.model.PollOption;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Immutable view of open and recently closed polls, their vote counts and the votes of online players.
+ * Built off the main thread by {@link PollSnapshotter}, so reading it never touches the database.
+ */
+@SuppressWarnings("unused")
+public final class PollSnapshot {
+
+    public static final PollSnapshot EMPTY = new PollSnapshot(Map.of(), Map.of(), Map.of(), Instant.EPOCH);
+
+    private final Map<Long, Poll> polls;
+    private final Map<Long, int[]> counts;
+    private final Map<UUID, Map<Long, Integer>> votes;
+    private final Instant builtAt;
+
+    public PollSnapshot(Map<Long, Poll> polls, Map<Long, int[]> counts, Map<UUID, Map<Long, Integer>> votes, Instant builtAt) {
+        this.polls = Collections.unmodifiableMap(new LinkedHashMap<>(polls));
+        Map<Long, int[]> c = new HashMap<>();
+        counts.forEach((id, arr) -> c.put(id, arr.clone()));
+        this.counts = Collections.unmodifiableMap(c);
+        Map<UUID, Map<Long, Integer>> v = new HashMap<>();
+        votes.forEach((player, byPoll) -> v.put(player, Map.copyOf(byPoll)));
+        this.votes = Collections.unmodifiableMap(v);
+        this.builtAt = builtAt;
+    }
+
+    private PollSnapshot(PollSnapshot base, Map<Long, int[]> counts, Map<UUID, Map<Long, Integer>> votes) {
+        this.polls = base.polls;
+        this.counts = counts;
+        this.votes = votes;
+        this.builtAt = base.builtAt;
+    }
+
+    /**
+     * A copy with the player's vote recorded and the poll's counts replaced by {@code pollCounts},
+     * the tally's counts taken after the vote. Counts are replaced rather than incremented, so
+     * applying the same vote twice is harmless. Pass null to keep the current counts.
+     * Only the changed poll's counts and the voter's votes are copied; everything else is shared
+     * with this snapshot. Returns this snapshot if the poll is not in it or nothing changes.
+     */
+    public PollSnapshot withVote(long pollId, UUID player, int optionIndex, int[] pollCounts) {
+        if (!polls.containsKey(pollId)) return this;
+        Map<Long, Integer> byPoll = votes.get(player);
+        boolean newVote = byPoll != null && !byPoll.containsKey(pollId);
+        if (!newVote && pollCounts == null) return this;
+
+        Map<Long, int[]> nextCounts = counts;
+        if (pollCounts != null) {
+            Map<Long, int[]> c = new HashMap<>(counts);
+            c.put(pollId, pollCounts.clone());
+            nextCounts = Collections.unmodifiableMap(c);
+        }
+
+        Map<UUID, Map<Long, Integer>> nextVotes = votes;
+        if (newVote) {
+            Map<Long, Integer> mine = new HashMap<>(byPoll);
+            mine.put(pollId, optionIndex);
+            nextVotes = new HashMap<>(votes);
+            nextVotes.put(player, Collections.unmodifiableMap(mine));
+            nextVotes = Collections.unmodifiableMap(nextVotes);
+        }
+        return new PollSnapshot(this, nextCounts, nextVotes);
+    }
+
+    /**
+     * A copy that covers the player with the given votes, keeping only polls in this snapshot.
+     * Returns this snapshot if the player is already covered.
+     */
+    public PollSnapshot withPlayer(UUID player, Map<Long, Integer> playerVotes) {
+        if (votes.containsKey(player)) return this;
+        Map<Long, Integer> kept = new HashMap<>(playerVotes);
+        kept.keySet().retainAll(polls.keySet());
+        Map<UUID, Map<Long, Integer>> nextVotes = new HashMap<>(votes);
+        nextVotes.put(player, Collections.unmodifiableMap(kept));
+        return new PollSnapshot(this, counts, Collections.unmodifiableMap(nextVotes));
+    }
+
+    public Optional<Poll> poll(long pollId) {
+        return Optional.ofNullable(polls.get(pollId));
+    }
+
+    public Collection<Poll> polls() {
+        return polls.values();
+    }
+
+    /**
+     * Polls that are open at the given time.
+     */
+    public int activeCount(Instant now) {
+        int active = 0;
+        for (Poll p : polls.values()) {
+            if (p.isActive(now)) active++;
+        }
+        return active;
+    }
+
+    /**
+     * Option text, or null if the poll or option does not exist.
+     */
+    public String optionText(long pollId, int optionIndex) {
+        Poll p = polls.get(pollId);
+        if (p == null || optionIndex < 0) return null;
+        List<PollOption> opts = p.getOptions();
+        return optionIndex < opts.size() ? opts.get(optionIndex).getText() : null;
+    }
+
+    public int count(long pollId, int optionIndex) {
+        int[] c = counts.get(pollId);
+        return c != null && optionIndex >= 0 && optionIndex < c.length ? c[optionIndex] : 0;
+    }
+
+    public int total(long pollId) {
+        int[] c = counts.get(pollId);
+        if (c == null) return 0;
+        int total = 0;
+        for (int n : c) total += n;
+        return total;
+    }
+
+    /**
+     * Whether the player's votes were loaded into this snapshot.
+     */
+    public boolean covers(UUID player) {
+        return votes.containsKey(player);
+    }
+
+    /**
+     * The option the player picked, or -1 if they have not voted or are not covered.
+     */
+    public int vote(UUID player, long pollId) {
+        Map<Long, Integer> byPoll = votes.get(player);
+        if (byPoll == null) return -1;
+        return byPoll.getOrDefault(pollId, -1);
+    }
+
+    public Instant getBuiltAt() {
+        return builtAt;
+    }
+}
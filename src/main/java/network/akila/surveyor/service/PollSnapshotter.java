@@ -0,0 +1,198 @@
+package network.akila.surveyor.service;
+
+import network.akila.surveyor.model.Poll;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps a {@link PollSnapshot} up to date.
+ * The snapshot is rebuilt off the main thread whenever a poll is created, closed or removed, and
+ * on a slow timer as a backstop for polls that close on their own. A joining player's votes are
+ * loaded on their own and added to the current snapshot. It holds open polls and polls that closed within the recent window. Votes are
+ * applied to the current snapshot in place of a rebuild: the voter's entry is added and the
+ * poll's counts are copied from the tally, never incremented, so a vote the rebuild already saw
+ * is not counted twice. Rebuilds never overlap; changes that arrive during a rebuild trigger one
+ * more afterwards, and votes cast meanwhile are replayed onto its result.
+ */
+@SuppressWarnings("unused")
+public final class PollSnapshotter implements Listener, PollChangeListener {
+
+    public static final long DEFAULT_REFRESH_TICKS = 600L;
+    public static final Duration DEFAULT_RECENT = Duration.ofDays(7);
+
+    private record PendingVote(long pollId, UUID player, int optionIndex) {
+    }
+
+    private final PollService service;
+    private final Duration recent;
+    private final Set<UUID> online = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean building = new AtomicBoolean();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    // guarded by this
+    private final List<PendingVote> pending = new ArrayList<>();
+    // guarded by this; votes of players whose votes are still loading after they joined
+    private final Map<UUID, List<PendingVote>> joining = new HashMap<>();
+
+    private volatile PollSnapshot snapshot = PollSnapshot.EMPTY;
+    private BukkitTask task;
+    private Plugin plugin;
+
+    public PollSnapshotter(PollService service) {
+        this(service, DEFAULT_RECENT);
+    }
+
+    /**
+     * @param recent how long closed polls stay in the snapshot
+     */
+    public PollSnapshotter(PollService service, Duration recent) {
+        this.service = service;
+        this.recent = recent;
+    }
+
+    /**
+     * Starts tracking online players and rebuilding every {@code refreshTicks}. Call on the main thread.
+     */
+    public void start(Plugin plugin, long refreshTicks) {
+        this.plugin = plugin;
+        for (Player p : Bukkit.getOnlinePlayers()) {
+            online.add(p.getUniqueId());
+        }
+        Bukkit.getPluginManager().registerEvents(this, plugin);
+        service.addListener(this);
+        task = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::refresh, 0L, Math.max(1L, refreshTicks));
+    }
+
+    public void stop() {
+        if (task != null) task.cancel();
+        service.removeListener(this);
+        HandlerList.unregisterAll(this);
+    }
+
+    /**
+     * The latest snapshot. Never blocks.
+     */
+    public PollSnapshot current() {
+        return snapshot;
+    }
+
+    /**
+     * Rebuilds the snapshot in the background, or marks it dirty if a rebuild is running.
+     */
+    public void refresh() {
+        if (!building.compareAndSet(false, true)) {
+            dirty.set(true);
+            return;
+        }
+        dirty.set(false);
+        synchronized (this) {
+            pending.clear();
+        }
+        CompletableFuture<PollSnapshot> next;
+        try {
+            next = build();
+        } catch (RuntimeException e) {
+            next = CompletableFuture.failedFuture(e);
+        }
+        next.whenComplete((snap, ex) -> {
+            if (ex != null) {
+                if (plugin != null) plugin.getLogger().warning("Failed to refresh poll snapshot: " + ex.getMessage());
+            } else {
+                publish(snap);
+            }
+            building.set(false);
+            if (dirty.getAndSet(false)) refresh();
+        });
+    }
+
+    /**
+     * Swaps in a rebuilt snapshot, replaying votes the rebuild may have missed.
+     */
+    private synchronized void publish(PollSnapshot built) {
+        PollSnapshot next = built;
+        for (PendingVote v : pending) {
+            next = next.withVote(v.pollId(), v.player(), v.optionIndex(), service.loadedCounts(v.pollId()));
+        }
+        pending.clear();
+        snapshot = next;
+    }
+
+    @Override
+    public void pollChanged(long pollId, Change change) {
+        refresh();
+    }
+
+    @Override
+    public synchronized void voted(long pollId, UUID player, int optionIndex) {
+        if (building.get()) pending.add(new PendingVote(pollId, player, optionIndex));
+        List<PendingVote> missed = joining.get(player);
+        if (missed != null) missed.add(new PendingVote(pollId, player, optionIndex));
+        snapshot = snapshot.withVote(pollId, player, optionIndex, service.loadedCounts(pollId));
+    }
+
+    @EventHandler
+    public void onJoin(PlayerJoinEvent e) {
+        UUID player = e.getPlayer().getUniqueId();
+        online.add(player);
+        synchronized (this) {
+            joining.put(player, new ArrayList<>());
+        }
+        service.votesOf(List.of(player)).whenComplete((votes, ex) -> joined(player, ex == null ? votes.get(player) : null));
+    }
+
+    /**
+     * Adds a joined player's votes to the current snapshot. If loading failed the player stays
+     * uncovered, so placeholders look their votes up directly until the next rebuild.
+     */
+    private synchronized void joined(UUID player, Map<Long, Integer> votes) {
+        List<PendingVote> missed = joining.remove(player);
+        if (votes == null || missed == null) return;
+        PollSnapshot next = snapshot.withPlayer(player, votes);
+        for (PendingVote v : missed) {
+            next = next.withVote(v.pollId(), player, v.optionIndex(), null);
+        }
+        snapshot = next;
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent e) {
+        online.remove(e.getPlayer().getUniqueId());
+    }
+
+    private CompletableFuture<PollSnapshot> build() {
+        CompletableFuture<Map<UUID, Map<Long, Integer>>> votes = service.votesOf(List.copyOf(online));
+        return service.findClosingSince(Instant.now().minus(recent)).thenCompose(all -> {
+            Map<Long, Poll> polls = new LinkedHashMap<>();
+            Map<Long, CompletableFuture<int[]>> counts = new HashMap<>();
+            for (Poll p : all) {
+                polls.put(p.getId(), p);
+                counts.put(p.getId(), service.optionCounts(p.getId()));
+            }
+            return CompletableFuture.allOf(counts.values().toArray(CompletableFuture[]::new))
+                    .thenCombine(votes, (v, byPlayer) -> {
+                        Map<Long, int[]> loaded = new HashMap<>();
+                        counts.forEach((id, f) -> loaded.put(id, f.join()));
+                        Map<UUID, Map<Long, Integer>> covered = new HashMap<>();
+                        byPlayer.forEach((player, byPoll) -> {
+                            Map<Long, Integer> kept = new HashMap<>(byPoll);
+                            kept.keySet().retainAll(polls.keySet());
+                            covered.put(player, kept);
+                        });
+                        return new PollSnapshot(polls, loaded, covered, Instant.now());
+                    });
+        });
+    }
+}
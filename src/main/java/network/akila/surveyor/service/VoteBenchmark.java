@@ -0,0 +1,105 @@
+package network.akila.surveyor.service;
+
+import network.akila.surveyor.model.VoteResult;
+import network.akila.surveyor.persistence.DatabaseProvider;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures the live vote path by casting synthetic votes on a hidden poll.
+ * <p>
+ * Votes go through {@link PollService#vote} on the running database, from made-up player ids,
+ * with a fixed number in flight at once. The hidden poll and its votes are removed afterwards,
+ * whether the run succeeds or not.
+ */
+@SuppressWarnings("unused")
+public final class VoteBenchmark {
+
+    public static final int MAX_VOTES = 100_000;
+    public static final int MAX_CONCURRENCY = 64;
+
+    private static final List<String> OPTIONS = List.of("A", "B", "C", "D");
+
+    public record Report(int votes, int concurrency, int accepted, Duration took,
+                         long p50Nanos, long p95Nanos, long p99Nanos, long maxNanos,
+                         DatabaseProvider.PoolWait poolWait) {
+        public double votesPerSecond() {
+            long nanos = Math.max(1, took.toNanos());
+            return votes * 1_000_000_000.0 / nanos;
+        }
+    }
+
+    private final PollService service;
+    private final DatabaseProvider provider;
+
+    public VoteBenchmark(PollService service, DatabaseProvider provider) {
+        this.service = service;
+        this.provider = provider;
+    }
+
+    public CompletableFuture<Report> run(int votes, int concurrency) {
+        int total = Math.clamp(votes, 1, MAX_VOTES);
+        int parallel = Math.clamp(concurrency, 1, Math.min(MAX_CONCURRENCY, total));
+
+        return service.createHidden("Surveyor benchmark", Instant.now().plus(Duration.ofHours(1)), OPTIONS)
+                .thenCompose(poll -> measure(poll.getId(), total, parallel)
+                        .handle((report, ex) -> service.remove(poll.getId()).handle((v, cleanupEx) -> {
+                            if (ex != null) throw new RuntimeException("Benchmark failed", ex);
+                            if (cleanupEx != null) {
+                                throw new RuntimeException("Failed to remove benchmark poll " + poll.getId(), cleanupEx);
+                            }
+                            return report;
+                        }))
+                        .thenCompose(f -> f));
+    }
+
+    private CompletableFuture<Report> measure(long pollId, int votes, int concurrency) {
+        long[] latencies = new long[votes];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger accepted = new AtomicInteger();
+        long runId = ThreadLocalRandom.current().nextLong();
+
+        DatabaseProvider.PoolWait before = provider.getPoolWait();
+        long started = System.nanoTime();
+        CompletableFuture<?>[] workers = new CompletableFuture<?>[concurrency];
+        for (int w = 0; w < concurrency; w++) {
+            workers[w] = castNext(pollId, runId, next, votes, latencies, accepted);
+        }
+        return CompletableFuture.allOf(workers).thenApply(v -> {
+            long took = System.nanoTime() - started;
+            DatabaseProvider.PoolWait wait = provider.getPoolWait().since(before);
+            Arrays.sort(latencies);
+            return new Report(votes, concurrency, accepted.get(), Duration.ofNanos(took),
+                    percentile(latencies, 0.50), percentile(latencies, 0.95), percentile(latencies, 0.99),
+                    latencies[latencies.length - 1], wait);
+        });
+    }
+
+    /**
+     * Casts votes one after another until all are taken; each worker keeps one vote in flight.
+     */
+    private CompletableFuture<Void> castNext(long pollId, long runId, AtomicInteger next, int votes,
+                                             long[] latencies, AtomicInteger accepted) {
+        int i = next.getAndIncrement();
+        if (i >= votes) return CompletableFuture.completedFuture(null);
+
+        long start = System.nanoTime();
+        return service.vote(pollId, new UUID(runId, i), i % OPTIONS.size()).thenCompose(result -> {
+            latencies[i] = System.nanoTime() - start;
+            if (result == VoteResult.ACCEPTED) accepted.incrementAndGet();
+            return castNext(pollId, runId, next, votes, latencies, accepted);
+        });
+    }
+
+    private static long percentile(long[] sorted, double q) {
+        int index = (int) Math.ceil(q * sorted.length) - 1;
+        return sorted[Math.clamp(index, 0, sorted.length - 1)];
+    }
+}
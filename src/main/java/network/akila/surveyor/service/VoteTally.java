@@ -0,0 +1,112 @@
+package network.akila.surveyor.service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.LongFunction;
+
+/**
+ * In-memory vote counts per poll.
+ * Counts are loaded from the database once per poll and then kept up to date
+ * on every accepted vote, so reads never touch the database again.
+ */
+public final class VoteTally {
+
+    private final Map<Long, Entry> tallies = new ConcurrentHashMap<>();
+    private final LongFunction<CompletableFuture<int[]>> loader;
+
+    /**
+     * @param loader loads the current per-option counts of a poll from storage
+     */
+    public VoteTally(LongFunction<CompletableFuture<int[]>> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Returns a copy of the per-option counts, loading them on first access.
+     */
+    public CompletableFuture<int[]> counts(long pollId) {
+        return entry(pollId).future.thenApply(VoteTally::copy);
+    }
+
+    /**
+     * Returns the count of one option, or 0 if the option does not exist.
+     */
+    public CompletableFuture<Integer> count(long pollId, int optionIndex) {
+        return entry(pollId).future.thenApply(arr ->
+                optionIndex >= 0 && optionIndex < arr.length() ? arr.get(optionIndex) : 0);
+    }
+
+    /**
+     * Returns a copy of the per-option counts if they are loaded, or null. Never starts a load.
+     */
+    public int[] peek(long pollId) {
+        Entry e = tallies.get(pollId);
+        if (e == null || !e.future.isDone() || e.future.isCompletedExceptionally()) return null;
+        return copy(e.future.join());
+    }
+
+    /**
+     * Records an accepted vote.
+     *
+     * @param submittedAt {@link System#nanoTime()} taken before the vote was sent to the database
+     */
+    public void increment(long pollId, int optionIndex, long submittedAt) {
+        Entry e = tallies.get(pollId);
+        if (e == null) return; // not loaded yet, the next load will include this vote
+
+        // A load that was still running when the vote was written may or may not have seen it.
+        if (!e.future.isDone() || e.completedAt >= submittedAt) {
+            tallies.remove(pollId, e);
+            return;
+        }
+
+        AtomicIntegerArray arr = e.future.getNow(null);
+        if (arr == null || optionIndex < 0 || optionIndex >= arr.length()) {
+            tallies.remove(pollId, e);
+            return;
+        }
+        arr.incrementAndGet(optionIndex);
+    }
+
+    /**
+     * Drops the cached counts of a poll; the next read reloads them.
+     */
+    public void invalidate(long pollId) {
+        tallies.remove(pollId);
+    }
+
+    public void clear() {
+        tallies.clear();
+    }
+
+    private Entry entry(long pollId) {
+        Entry e = tallies.computeIfAbsent(pollId, id -> new Entry());
+        if (e.started.compareAndSet(false, true)) {
+            loader.apply(pollId).whenComplete((counts, ex) -> {
+                if (ex != null) {
+                    tallies.remove(pollId, e);
+                    e.future.completeExceptionally(ex);
+                    return;
+                }
+                e.completedAt = System.nanoTime();
+                e.future.complete(new AtomicIntegerArray(counts));
+            });
+        }
+        return e;
+    }
+
+    private static int[] copy(AtomicIntegerArray arr) {
+        int[] out = new int[arr.length()];
+        for (int i = 0; i < out.length; i++) out[i] = arr.get(i);
+        return out;
+    }
+
+    private static final class Entry {
+        final CompletableFuture<AtomicIntegerArray> future = new CompletableFuture<>();
+        final AtomicBoolean started = new AtomicBoolean();
+        volatile long completedAt = Long.MAX_VALUE;
+    }
+}
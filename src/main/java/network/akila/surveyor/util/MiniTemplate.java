@@ -0,0 +1,167 @@
+package network.akila.surveyor.util;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextReplacementConfig;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.bukkit.entity.Player;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * A MiniMessage template from config, compiled once and reused.
+ * <p>
+ * The template is deserialized a single time; {@code {name}} slots stay in the resulting
+ * {@link Component} as plain text and are filled per render with {@link Slot} values, so a
+ * render only walks the finished component instead of parsing MiniMessage again.
+ * Two kinds of templates fall back to substituting the slots into the text and parsing it:
+ * templates with {@code %placeholders%} when PlaceholderAPI has a player to resolve them for,
+ * and templates with a slot inside a tag, such as {@code <click:run_command:/poll {id}>}.
+ */
+@SuppressWarnings("unused")
+public final class MiniTemplate {
+
+    private static final MiniMessage MM = MiniMessage.miniMessage();
+    private static final Pattern SLOT = Pattern.compile("\\{([A-Za-z_]+)}");
+    private static final int MAX_CACHED = 2048;
+    private static final int MAX_LENGTH = 1024;
+
+    // config holds a fixed set of templates, so once full this just stops growing
+    private static final Map<String, MiniTemplate> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * A value for a {@code {name}} slot.
+     *
+     * @param mini      the value as MiniMessage, used when the template falls back to parsing text
+     * @param component the value as a component, used when filling a compiled template
+     */
+    public record Slot(String name, String mini, Component component) {
+    }
+
+    /**
+     * A slot shown exactly as given. Use for player or database text, such as questions and options.
+     */
+    public static Slot text(String name, Object value) {
+        String s = String.valueOf(value);
+        return new Slot(name, MM.escapeTags(s), Component.text(s));
+    }
+
+    /**
+     * A slot filled with an already rendered component, such as another template.
+     */
+    public static Slot component(String name, Component value) {
+        return new Slot(name, MM.serialize(value), value);
+    }
+
+    /**
+     * A slot whose value is MiniMessage itself, such as a status label from config.
+     */
+    public static Slot mini(String name, String value) {
+        String s = value == null ? "" : value;
+        boolean plain = s.indexOf('<') < 0 && s.indexOf('\\') < 0;
+        return new Slot(name, s, plain ? Component.text(s) : MM.deserialize(s));
+    }
+
+    private final String source;
+    private final boolean dynamic;
+    private final boolean slotInTag;
+    private final boolean hasSlots;
+    private final Component compiled;
+
+    private MiniTemplate(String source) {
+        this.source = source;
+        this.dynamic = source.indexOf('%') >= 0;
+        this.slotInTag = slotInTag(source);
+        this.hasSlots = SLOT.matcher(source).find();
+        this.compiled = slotInTag ? null : MM.deserialize(source);
+    }
+
+    /**
+     * Returns the compiled template for a config string, compiling it on first use.
+     * Very long strings, and any string once the cache is full, are compiled but not cached.
+     */
+    public static MiniTemplate of(String source) {
+        String s = source == null ? "" : source;
+        MiniTemplate t = CACHE.get(s);
+        if (t != null) return t;
+        t = new MiniTemplate(s);
+        if (s.length() <= MAX_LENGTH && CACHE.size() < MAX_CACHED) {
+            MiniTemplate raced = CACHE.putIfAbsent(s, t);
+            if (raced != null) return raced;
+        }
+        return t;
+    }
+
+    /**
+     * Compiles every line of a multi-line template.
+     */
+    public static List<MiniTemplate> of(List<String> lines) {
+        return lines.stream().map(MiniTemplate::of).toList();
+    }
+
+    public static void clearCache() {
+        CACHE.clear();
+    }
+
+    /**
+     * Renders for a player, or for no one if {@code player} is null.
+     * Slots the template does not use are ignored; slots without a value stay as written.
+     */
+    public Component render(Player player, Slot... slots) {
+        if (slotInTag || (dynamic && player != null && Utils.papiAvailable())) {
+            String s = source;
+            for (Slot slot : slots) {
+                s = s.replace("{" + slot.name() + "}", slot.mini());
+            }
+            return MM.deserialize(Utils.applyPAPI(player, s));
+        }
+        if (!hasSlots || slots.length == 0) return compiled;
+        return compiled.replaceText(TextReplacementConfig.builder()
+                .match(SLOT)
+                .replacement((match, original) -> {
+                    String name = match.group(1);
+                    for (Slot slot : slots) {
+                        if (slot.name().equals(name)) return slot.component();
+                    }
+                    return original;
+                })
+                .build());
+    }
+
+    /**
+     * Renders every line for a player.
+     */
+    public static List<Component> render(Player player, List<MiniTemplate> lines, Slot... slots) {
+        return lines.stream().map(t -> t.render(player, slots)).toList();
+    }
+
+    public boolean isDynamic() {
+        return dynamic;
+    }
+
+    public String source() {
+        return source;
+    }
+
+    /**
+     * Whether a {@code {slot}} appears inside a tag, where the compiled component cannot reach it.
+     */
+    private static boolean slotInTag(String s) {
+        boolean inTag = false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '<') {
+                inTag = true;
+            } else if (c == '>') {
+                inTag = false;
+            } else if (c == '{' && inTag) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
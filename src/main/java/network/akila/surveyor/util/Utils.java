@@ -6,6 +6,9 @@ import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -40,6 +43,15 @@ public final class Utils {
         return parse(null, lines);
     }
 
+    /**
+     * Parses a config string used verbatim, reusing its compiled {@link MiniTemplate}.
+     * Use {@link #parse(Player, String)} for text with substituted values.
+     */
+    public static Component parseTemplate(Player p, String mini) {
+        if (mini == null) return Component.empty();
+        return MiniTemplate.of(mini).render(p);
+    }
+
     public static Component prefixed(Player p, String prefixMini, String msgMini) {
         String s = (prefixMini == null ? "" : prefixMini) + (msgMini == null ? "" : msgMini);
         return parse(p, s);
@@ -49,6 +61,13 @@ public final class Utils {
         if (p != null) p.sendMessage(parse(p, mini));
     }
 
+    /**
+     * Sends a compiled template with its slots filled.
+     */
+    public static void send(Player p, MiniTemplate template, MiniTemplate.Slot... slots) {
+        if (p != null) p.sendMessage(template.render(p, slots));
+    }
+
     public static void sendPrefixed(Player p, String prefixMini, String msgMini) {
         if (p != null) p.sendMessage(prefixed(p, prefixMini, msgMini));
     }
@@ -72,14 +91,32 @@ public final class Utils {
                         java.time.Duration.ofMillis(out))));
     }
 
-    private static String applyPAPI(Player p, String s) {
+    /* PlaceholderAPI bridge */
+
+    private static volatile MethodHandle setPlaceholders;
+
+    /**
+     * Whether PlaceholderAPI is enabled. Resolves the method handle the first time it is.
+     */
+    static boolean papiAvailable() {
+        if (setPlaceholders != null) return true;
+        if (!Bukkit.getPluginManager().isPluginEnabled("PlaceholderAPI")) return false;
+        try {
+            Class<?> cls = Class.forName("me.clip.placeholderapi.PlaceholderAPI");
+            setPlaceholders = MethodHandles.publicLookup().findStatic(cls, "setPlaceholders",
+                    MethodType.methodType(String.class, Player.class, String.class));
+            return true;
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    static String applyPAPI(Player p, String s) {
+        if (p == null || s.indexOf('%') < 0 || !papiAvailable()) return s;
         try {
-            if (p != null && Bukkit.getPluginManager().isPluginEnabled("PlaceholderAPI")) {
-                Class<?> cls = Class.forName("me.clip.placeholderapi.PlaceholderAPI");
-                return (String) cls.getMethod("setPlaceholders", Player.class, String.class).invoke(null, p, s);
-            }
+            return (String) setPlaceholders.invokeExact(p, s);
         } catch (Throwable ignored) {
+            return s;
         }
-        return s;
     }
 }
@@ -0,0 +1,73 @@
+import network.akila.surveyor.service.PlaceholderCache;
+import network.akila.surveyor.service.PlaceholderCache.Key;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PlaceholderCacheTest {
+
+    @Test
+    @DisplayName("Keeps player-scoped values apart")
+    void keyedPerPlayer() {
+        PlaceholderCache cache = new PlaceholderCache(1_000L, 100);
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+
+        String a = cache.get(new Key(alice, "has_voted_1"), () -> CompletableFuture.completedFuture("yes"), "no");
+        String b = cache.get(new Key(bob, "has_voted_1"), () -> CompletableFuture.completedFuture("no"), "no");
+        System.out.println("alice=" + a + " bob=" + b);
+
+        assertEquals("yes", a);
+        assertEquals("no", b);
+    }
+
+    @Test
+    @DisplayName("Serves the stale value while one refresh runs")
+    void staleWhileRevalidate() {
+        AtomicLong now = new AtomicLong();
+        PlaceholderCache cache = new PlaceholderCache(1_000L, 100, now::get);
+        Key key = Key.global("poll_votes_1");
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        assertEquals("3", cache.get(key, () -> CompletableFuture.completedFuture("3"), null));
+
+        now.set(1_500L);
+        for (int i = 0; i < 5; i++) {
+            assertEquals("3", cache.get(key, () -> {
+                loads.incrementAndGet();
+                return pending;
+            }, null));
+        }
+        System.out.println("Refreshes started: " + loads.get());
+        assertEquals(1, loads.get());
+
+        pending.complete("4");
+        assertEquals("4", cache.get(key, () -> CompletableFuture.completedFuture("5"), null));
+    }
+
+    @Test
+    @DisplayName("Evicts the least recently used entry")
+    void evictsLeastRecentlyUsed() {
+        PlaceholderCache cache = new PlaceholderCache(60_000L, 2);
+        cache.get(Key.global("a"), () -> CompletableFuture.completedFuture("a"), null);
+        cache.get(Key.global("b"), () -> CompletableFuture.completedFuture("b"), null);
+        cache.get(Key.global("a"), () -> CompletableFuture.completedFuture("a"), null);
+        cache.get(Key.global("c"), () -> CompletableFuture.completedFuture("c"), null);
+
+        AtomicInteger reloads = new AtomicInteger();
+        cache.get(Key.global("a"), () -> {
+            reloads.incrementAndGet();
+            return CompletableFuture.completedFuture("a");
+        }, null);
+
+        assertEquals(2, cache.size());
+        assertEquals(0, reloads.get());
+    }
+}
@@ -0,0 +1,29 @@
+import network.akila.surveyor.service.PlaceholderIdentifier;
+import network.akila.surveyor.service.PlaceholderIdentifier.Type;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PlaceholderIdentifierTest {
+
+    @Test
+    @DisplayName("Tells option votes apart from option text")
+    void optionPrefixes() {
+        PlaceholderIdentifier votes = PlaceholderIdentifier.parse("poll_option_votes_12_3");
+        PlaceholderIdentifier text = PlaceholderIdentifier.parse("poll_option_12_3");
+        System.out.println(votes + " / " + text);
+
+        assertEquals(new PlaceholderIdentifier(Type.POLL_OPTION_VOTES, 12, 3), votes);
+        assertEquals(new PlaceholderIdentifier(Type.POLL_OPTION, 12, 3), text);
+    }
+
+    @Test
+    @DisplayName("Parses malformed numbers to -1")
+    void malformedNumbers() {
+        assertEquals(new PlaceholderIdentifier(Type.POLL_QUESTION, -1, -1), PlaceholderIdentifier.parse("poll_question_abc"));
+        assertEquals(new PlaceholderIdentifier(Type.HAS_VOTED, -1, -1), PlaceholderIdentifier.parse("has_voted_"));
+        assertEquals(new PlaceholderIdentifier(Type.POLL_OPTION, 4, -1), PlaceholderIdentifier.parse("poll_option_4_x"));
+        assertEquals(Type.UNKNOWN, PlaceholderIdentifier.parse("something_else").type());
+    }
+}
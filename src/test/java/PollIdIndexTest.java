@@ -0,0 +1,37 @@
+import network.akila.surveyor.service.PollIdIndex;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PollIdIndexTest {
+
+    @Test
+    @DisplayName("Matches ids by decimal prefix, shortest first")
+    void prefixMatches() {
+        PollIdIndex index = new PollIdIndex();
+        index.addAll(List.of(1L, 2L, 10L, 12L, 21L, 100L, 123L, 1999L, 2000L));
+
+        List<Long> ones = index.matching("1", 10);
+        System.out.println("1 -> " + ones);
+
+        assertEquals(List.of(1L, 10L, 12L, 100L, 123L, 1999L), ones);
+        assertEquals(List.of(12L, 123L), index.matching("12", 10));
+        assertEquals(List.of(1L, 10L, 12L), index.matching("1", 3));
+        assertEquals(List.of(1L, 2L), index.matching("", 2));
+    }
+
+    @Test
+    @DisplayName("Returns nothing for prefixes no id can have")
+    void impossiblePrefixes() {
+        PollIdIndex index = new PollIdIndex();
+        index.addAll(List.of(0L, 5L, 50L));
+
+        assertEquals(List.of(), index.matching("05", 10));
+        assertEquals(List.of(), index.matching("x", 10));
+        assertEquals(List.of(0L), index.matching("0", 10));
+        assertEquals(List.of(5L, 50L), index.matching("5", 10));
+    }
+}
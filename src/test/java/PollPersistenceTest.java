@@ -1,9 +1,17 @@
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import network.akila.surveyor.model.Poll;
+import network.akila.surveyor.model.PollFilter;
 import network.akila.surveyor.model.PollOption;
+import network.akila.surveyor.model.PollPage;
+import network.akila.surveyor.model.PollSort;
 import network.akila.surveyor.model.Vote;
+import network.akila.surveyor.model.VoteCounts;
+import network.akila.surveyor.model.VoteResult;
+import network.akila.surveyor.persistence.BatchWriter;
 import network.akila.surveyor.persistence.DatabaseProvider;
+import network.akila.surveyor.persistence.SchemaManager;
+import network.akila.surveyor.persistence.StorageMigrator;
 import network.akila.surveyor.persistence.dao.PollDAO;
 import network.akila.surveyor.persistence.dao.PollOptionDAO;
 import network.akila.surveyor.persistence.dao.VoteDAO;
@@ -12,15 +20,28 @@ import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.*;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class PollPersistenceTest {
 
     private HikariDataSource ds;
+    private DatabaseProvider provider;
     private PollDAO pollDAO;
     private PollOptionDAO optionDAO;
     private VoteDAO voteDAO;
@@ -40,7 +61,8 @@ class PollPersistenceTest {
             st.execute("PRAGMA foreign_keys=ON;");
         }
 
-        DatabaseProvider provider = new DatabaseProvider(DbType.SQLITE, ds);
+        provider = new DatabaseProvider(DbType.SQLITE, ds);
+        new SchemaManager(provider).migrate();
 
         pollDAO = new PollDAO(provider);
         optionDAO = new PollOptionDAO(provider);
@@ -51,6 +73,9 @@ class PollPersistenceTest {
 
     @AfterEach
     void tearDown() {
+        if (voteDAO != null) {
+            voteDAO.close();
+        }
         if (ds != null && !ds.isClosed()) {
             ds.close();
             System.out.println("Data source closed.");
@@ -124,6 +149,165 @@ class PollPersistenceTest {
         }
 
         assertEquals(2, votes.size());
+        assertEquals(Optional.of(1), voteDAO.findVote(poll.getId(), u2).join());
+        assertEquals(Optional.empty(), voteDAO.findVote(poll.getId(), UUID.randomUUID()).join());
+    }
+
+    @Test
+    @DisplayName("Batch concurrent vote writes")
+    void batchVoteWrites() throws Exception {
+        Poll poll = pollDAO.createPoll("Batched?", Instant.now().plusSeconds(600), List.of("A", "B")).join();
+        UUID bad = UUID.randomUUID();
+        String sql = "INSERT INTO votes(poll_id, player_uuid, opt_index, created_at) VALUES (?, ?, ?, ?)";
+        BatchWriter<Vote> writer = new BatchWriter<>(provider, "test", sql, (ps, v) -> {
+            if (v.getPlayerUuid().equals(bad)) throw new IllegalArgumentException("bad row");
+            ps.setLong(1, v.getPollId());
+            ps.setString(2, v.getPlayerUuid().toString());
+            ps.setInt(3, v.getOptionIndex());
+            ps.setLong(4, v.getCreatedAt().toEpochMilli());
+        }, 50, 200);
+
+        System.out.println("Submit 200 votes and one bad row from 8 threads.");
+        DatabaseProvider.PoolWait before = provider.getPoolWait();
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<CompletableFuture<Integer>> futures = Collections.synchronizedList(new ArrayList<>());
+        try {
+            List<CompletableFuture<Void>> submitted = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                Vote vote = new Vote(poll.getId(), UUID.randomUUID(), i % 2, Instant.now());
+                submitted.add(CompletableFuture.runAsync(() -> futures.add(writer.submit(vote)), callers));
+            }
+            CompletableFuture<Integer> failed = writer.submit(new Vote(poll.getId(), bad, 0, Instant.now()));
+            CompletableFuture.allOf(submitted.toArray(CompletableFuture[]::new)).join();
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+            long acquisitions = provider.getPoolWait().since(before).acquisitions();
+            System.out.println("Wrote 200 rows with " + acquisitions + " connections.");
+            assertEquals(200, futures.size());
+            futures.forEach(f -> assertEquals(1, f.join()));
+            assertTrue(acquisitions < 20, "rows were not coalesced: " + acquisitions);
+            assertThrows(CompletionException.class, failed::join);
+            assertEquals(200, voteDAO.findByPoll(poll.getId()).join().size());
+        } finally {
+            callers.shutdown();
+            writer.close();
+        }
+
+        System.out.println("Queue more rows and close before the linger passes.");
+        BatchWriter<Vote> lingering = new BatchWriter<>(provider, "linger", sql, (ps, v) -> {
+            ps.setLong(1, v.getPollId());
+            ps.setString(2, v.getPlayerUuid().toString());
+            ps.setInt(3, v.getOptionIndex());
+            ps.setLong(4, v.getCreatedAt().toEpochMilli());
+        }, 1_000, 60_000);
+        List<CompletableFuture<Integer>> pending = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            pending.add(lingering.submit(new Vote(poll.getId(), UUID.randomUUID(), 0, Instant.now())));
+        }
+        assertEquals(10, lingering.stats().rows());
+        lingering.close();
+
+        pending.forEach(f -> assertEquals(1, f.join()));
+        assertEquals(0, lingering.stats().rows());
+        assertEquals(210, voteDAO.findByPoll(poll.getId()).join().size());
+    }
+
+    @Test
+    @DisplayName("Stream votes of a poll row by row")
+    void streamVotes() {
+        Poll poll = pollDAO.createPoll("Stream?", Instant.now().plusSeconds(600), List.of("A", "B")).join();
+        Poll other = pollDAO.createPoll("Other?", Instant.now().plusSeconds(600), List.of("A", "B")).join();
+
+        for (int i = 0; i < 50; i++) {
+            voteDAO.upsertVote(new Vote(poll.getId(), UUID.randomUUID(), i % 2, Instant.now())).join();
+        }
+        voteDAO.upsertVote(new Vote(other.getId(), UUID.randomUUID(), 0, Instant.now())).join();
+
+        int[] perOption = new int[2];
+        long rows = voteDAO.streamByPoll(poll.getId(), v -> perOption[v.getOptionIndex()]++).join();
+        System.out.println("Streamed " + rows + " rows: " + perOption[0] + " / " + perOption[1]);
+
+        assertEquals(50, rows);
+        assertArrayEquals(new int[]{25, 25}, perOption);
+    }
+
+    @Test
+    @DisplayName("Migrate to another database and catch up")
+    void migrateStorage() {
+        Poll poll = pollDAO.createPoll("Move?", Instant.now().plusSeconds(600), List.of("Yes", "No")).join();
+        Poll gone = pollDAO.createPoll("Gone?", Instant.now().plusSeconds(600), List.of()).join();
+        for (int i = 0; i < 30; i++) {
+            voteDAO.upsertVote(new Vote(poll.getId(), UUID.randomUUID(), i % 2, Instant.now())).join();
+        }
+
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:sqlite:file:migrate_target?mode=memory&cache=shared");
+        config.setMaximumPoolSize(5);
+        DatabaseProvider target = new DatabaseProvider(DbType.SQLITE, new HikariDataSource(config));
+        try {
+            StorageMigrator migrator = new StorageMigrator(provider, target, 7);
+
+            StorageMigrator.Result first = migrator.migrate((table, rows) -> System.out.println(table + ": " + rows), false);
+            System.out.println("First run: " + first);
+            assertTrue(first.verified());
+
+            // changes that sort before rows already copied, an update and a removal
+            voteDAO.upsertVote(new Vote(poll.getId(), UUID.randomUUID(), 0, Instant.now())).join();
+            pollDAO.setManuallyClosed(poll.getId(), true).join();
+            pollDAO.delete(gone.getId()).join();
+            Poll later = pollDAO.createPoll("Later?", Instant.now().plusSeconds(600), List.of("A", "B", "C")).join();
+            voteDAO.upsertVote(new Vote(later.getId(), UUID.randomUUID(), 2, Instant.now())).join();
+
+            // without pruning the deleted poll stays in the target
+            StorageMigrator.Result kept = migrator.migrate((table, rows) -> { }, false);
+            assertFalse(kept.verified());
+            assertEquals(List.of(0L, 0L, 0L), kept.tables().stream().map(StorageMigrator.TableResult::removed).toList());
+            assertTrue(new PollDAO(target).exists(gone.getId()).join());
+
+            StorageMigrator.Result second = migrator.migrate((table, rows) -> { }, true);
+            System.out.println("Second run: " + second);
+            assertTrue(second.verified());
+            assertEquals(List.of(1L, 0L, 0L), second.tables().stream().map(StorageMigrator.TableResult::removed).toList());
+            assertEquals(32, second.tables().get(2).targetRows());
+            assertTrue(new PollDAO(target).findById(poll.getId()).join().orElseThrow().isManuallyClosed());
+        } finally {
+            target.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Hidden polls stay out of listings")
+    void hiddenPolls() {
+        Poll visible = pollDAO.createPoll("Visible?", Instant.now().plusSeconds(600), List.of("A", "B")).join();
+        Poll hidden = pollDAO.createPoll("Hidden?", Instant.now().plusSeconds(600), List.of("A", "B"), true).join();
+        System.out.println("Created visible #" + visible.getId() + " and hidden #" + hidden.getId());
+
+        assertEquals(List.of(visible.getId()), pollDAO.findAll().join().stream().map(Poll::getId).toList());
+        assertEquals(List.of(visible.getId()), pollDAO.findAllIds().join());
+        assertEquals(1, pollDAO.countSummaries(PollFilter.ALL, Instant.now()).join());
+        assertEquals(1, pollDAO.listSummaries(PollFilter.ALL, PollSort.NEWEST, null, 10, Instant.now()).join().items().size());
+        assertTrue(pollDAO.findById(hidden.getId()).join().isEmpty());
+        assertFalse(pollDAO.exists(hidden.getId()).join());
+
+        System.out.println("Delete leftover hidden polls.");
+        assertEquals(1, pollDAO.deleteHidden().join());
+        assertEquals(0, pollDAO.deleteHidden().join());
+        assertTrue(pollDAO.exists(visible.getId()).join());
+    }
+
+    @Test
+    @DisplayName("Find open and recently closed polls")
+    void findClosingSince() {
+        Instant now = Instant.now();
+        Poll open = pollDAO.createPoll("Open?", now.plusSeconds(600), List.of("A", "B")).join();
+        Poll recent = pollDAO.createPoll("Recent?", now.minusSeconds(60), List.of("A", "B")).join();
+        pollDAO.createPoll("Old?", now.minusSeconds(86_400), List.of("A", "B")).join();
+
+        List<Poll> found = pollDAO.findClosingSince(now.minusSeconds(3600)).join();
+        System.out.println("Closing since an hour ago: " + found.stream().map(Poll::getId).toList());
+
+        assertEquals(List.of(open.getId(), recent.getId()), found.stream().map(Poll::getId).toList());
+        assertEquals(2, found.get(0).getOptions().size());
     }
 
     @Test
@@ -148,5 +332,122 @@ class PollPersistenceTest {
         }
 
         assertEquals(2, polls.size());
+        for (Poll p : polls) {
+            assertEquals(2, p.getOptions().size());
+        }
+    }
+
+    @Test
+    @DisplayName("Count votes per option in one query")
+    void countVotesByOption() {
+        System.out.println("Create poll with three options.");
+        Poll poll = pollDAO.createPoll(
+                "Best build style?",
+                Instant.now().plusSeconds(600),
+                List.of("Medieval", "Modern", "Fantasy")
+        ).join();
+
+        voteDAO.upsertVote(new Vote(poll.getId(), UUID.randomUUID(), 0, Instant.now())).join();
+        voteDAO.upsertVote(new Vote(poll.getId(), UUID.randomUUID(), 2, Instant.now())).join();
+        voteDAO.upsertVote(new Vote(poll.getId(), UUID.randomUUID(), 2, Instant.now())).join();
+
+        VoteCounts counts = voteDAO.countByOption(poll.getId()).join();
+        System.out.println("Counts: " + counts);
+
+        assertArrayEquals(new int[]{1, 0, 2}, counts.getCounts());
+        assertEquals(3, counts.getTotal());
+    }
+
+    @Test
+    @DisplayName("Cast votes atomically")
+    void castVotes() {
+        System.out.println("Create one open and one expired poll.");
+        Poll open = pollDAO.createPoll(
+                "Open poll?",
+                Instant.now().plusSeconds(600),
+                List.of("Yes", "No")
+        ).join();
+        Poll expired = pollDAO.createPoll(
+                "Expired poll?",
+                Instant.now().minusSeconds(5),
+                List.of("Yes", "No")
+        ).join();
+
+        UUID voter = UUID.randomUUID();
+        VoteResult first = voteDAO.castVote(open.getId(), voter, 1).join();
+        VoteResult second = voteDAO.castVote(open.getId(), voter, 0).join();
+        VoteResult closed = voteDAO.castVote(expired.getId(), voter, 0).join();
+        VoteResult missing = voteDAO.castVote(open.getId() + 1000, voter, 0).join();
+        System.out.println("Results: " + first + ", " + second + ", " + closed + ", " + missing);
+
+        assertEquals(VoteResult.ACCEPTED, first);
+        assertEquals(VoteResult.ALREADY_VOTED, second);
+        assertEquals(VoteResult.CLOSED, closed);
+        assertEquals(VoteResult.NOT_FOUND, missing);
+        assertArrayEquals(new int[]{0, 1}, voteDAO.countByOption(open.getId()).join().getCounts());
+    }
+
+    @Test
+    @DisplayName("Load votes for a set of players")
+    void findVotesByPlayers() {
+        System.out.println("Create two polls and vote with one of two players.");
+        Poll a = pollDAO.createPoll("Poll A?", Instant.now().plusSeconds(600), List.of("Yes", "No")).join();
+        Poll b = pollDAO.createPoll("Poll B?", Instant.now().plusSeconds(600), List.of("Yes", "No")).join();
+        UUID voter = UUID.randomUUID();
+        UUID lurker = UUID.randomUUID();
+        voteDAO.castVote(a.getId(), voter, 1).join();
+        voteDAO.castVote(b.getId(), voter, 0).join();
+
+        Map<UUID, Map<Long, Integer>> votes = voteDAO.findByPlayers(List.of(voter, lurker)).join();
+        System.out.println("Votes: " + votes);
+
+        assertEquals(Map.of(a.getId(), 1, b.getId(), 0), votes.get(voter));
+        assertEquals(Map.of(), votes.get(lurker));
+    }
+
+    @Test
+    @DisplayName("Page through polls with a keyset cursor")
+    void listPollPages() {
+        System.out.println("Create five open polls and one closed poll.");
+        List<Long> open = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            open.add(pollDAO.createPoll("Poll " + i + "?", Instant.now().plusSeconds(600 + i), List.of("Yes", "No")).join().getId());
+        }
+        long closed = pollDAO.createPoll("Closed?", Instant.now().minusSeconds(5), List.of("Yes", "No")).join().getId();
+
+        List<Long> seen = new ArrayList<>();
+        PollPage.Cursor cursor = null;
+        int pages = 0;
+        do {
+            PollPage page = pollDAO.listSummaries(PollFilter.OPEN, PollSort.NEWEST, cursor, 2, Instant.now()).join();
+            page.items().forEach(p -> seen.add(p.id()));
+            cursor = page.next();
+            pages++;
+        } while (cursor != null);
+        System.out.println("Pages: " + pages + " | ids: " + seen);
+
+        List<Long> expected = new ArrayList<>(open);
+        Collections.reverse(expected);
+        assertEquals(expected, seen);
+        assertEquals(3, pages);
+        assertEquals(5, pollDAO.countSummaries(PollFilter.OPEN, Instant.now()).join());
+
+        PollPage soonest = pollDAO.listSummaries(PollFilter.ALL, PollSort.CLOSING_SOON, null, 1, Instant.now()).join();
+        assertEquals(closed, soonest.items().get(0).id());
+    }
+
+    @Test
+    @DisplayName("Apply schema migrations only once")
+    void migrateSchemaOnce() throws Exception {
+        System.out.println("Run migrations again on an up-to-date schema.");
+        int version = new SchemaManager(provider).migrate();
+        System.out.println("Schema version: " + version);
+
+        assertEquals(SchemaManager.latestVersion(), version);
+        try (var c = ds.getConnection(); var st = c.createStatement();
+             var rs = st.executeQuery("SELECT COUNT(*) FROM schema_version")) {
+            rs.next();
+            assertEquals(SchemaManager.latestVersion(), rs.getInt(1));
+        }
     }
 }
@@ -0,0 +1,81 @@
+import network.akila.surveyor.model.Poll;
+import network.akila.surveyor.model.PollOption;
+import network.akila.surveyor.service.PollSnapshot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class PollSnapshotTest {
+
+    @Test
+    @DisplayName("Applies a vote without touching the original snapshot")
+    void withVote() {
+        UUID online = UUID.randomUUID();
+        UUID offline = UUID.randomUUID();
+        Poll poll = new Poll(1L, "Q?", Instant.now(), Instant.now().plusSeconds(600), false,
+                List.of(new PollOption(0, "A"), new PollOption(1, "B")));
+        PollSnapshot base = new PollSnapshot(Map.of(1L, poll), Map.of(1L, new int[]{2, 0}),
+                Map.of(online, Map.of()), Instant.now());
+
+        PollSnapshot next = base.withVote(1L, online, 1, new int[]{2, 1}).withVote(1L, offline, 0, new int[]{3, 1});
+        System.out.println("Counts after two votes: " + next.count(1L, 0) + ", " + next.count(1L, 1));
+
+        assertEquals(3, next.count(1L, 0));
+        assertEquals(1, next.count(1L, 1));
+        assertEquals(1, next.vote(online, 1L));
+        assertEquals(2, base.total(1L));
+        assertEquals(-1, base.vote(online, 1L));
+    }
+
+    @Test
+    @DisplayName("Replaying a vote the counts already include does not count it twice")
+    void replayKeepsCounts() {
+        UUID player = UUID.randomUUID();
+        Poll poll = new Poll(1L, "Q?", Instant.now(), Instant.now().plusSeconds(600), false,
+                List.of(new PollOption(0, "A"), new PollOption(1, "B")));
+        // Built after the vote reached the tally, before it reached the player's votes.
+        PollSnapshot built = new PollSnapshot(Map.of(1L, poll), Map.of(1L, new int[]{1, 1}),
+                Map.of(player, Map.of()), Instant.now());
+
+        PollSnapshot next = built.withVote(1L, player, 1, new int[]{1, 1});
+
+        assertEquals(2, next.total(1L));
+        assertEquals(1, next.vote(player, 1L));
+    }
+
+    @Test
+    @DisplayName("Ignores repeated votes and unknown polls")
+    void ignoresDuplicates() {
+        UUID player = UUID.randomUUID();
+        Poll poll = new Poll(1L, "Q?", Instant.now(), Instant.now().plusSeconds(600), false,
+                List.of(new PollOption(0, "A")));
+        PollSnapshot base = new PollSnapshot(Map.of(1L, poll), Map.of(1L, new int[]{1}),
+                Map.of(player, Map.of(1L, 0)), Instant.now());
+
+        assertSame(base, base.withVote(1L, player, 0, null));
+        assertSame(base, base.withVote(2L, player, 0, new int[]{2}));
+        assertSame(base, base.withVote(1L, UUID.randomUUID(), 0, null));
+    }
+
+    @Test
+    @DisplayName("Covers a joining player with their votes on polls in the snapshot")
+    void withPlayer() {
+        UUID player = UUID.randomUUID();
+        Poll poll = new Poll(1L, "Q?", Instant.now(), Instant.now().plusSeconds(600), false,
+                List.of(new PollOption(0, "A"), new PollOption(1, "B")));
+        PollSnapshot base = new PollSnapshot(Map.of(1L, poll), Map.of(1L, new int[]{0, 1}), Map.of(), Instant.now());
+
+        PollSnapshot next = base.withPlayer(player, Map.of(1L, 1, 9L, 0));
+
+        assertEquals(1, next.vote(player, 1L));
+        assertEquals(-1, next.vote(player, 9L));
+        assertSame(next, next.withPlayer(player, Map.of()));
+    }
+}
@@ -0,0 +1,56 @@
+import network.akila.surveyor.metrics.Timer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimerTest {
+
+    @Test
+    @DisplayName("Percentiles stay within a quarter of the recorded value")
+    void percentiles() {
+        Timer timer = new Timer();
+        for (int i = 1; i <= 100; i++) {
+            timer.record(i * 1_000_000L);
+        }
+
+        Timer.Snapshot s = timer.snapshot();
+        System.out.println("p50=" + s.p50Nanos() + " p95=" + s.p95Nanos() + " p99=" + s.p99Nanos() + " max=" + s.maxNanos());
+
+        assertEquals(100, s.count());
+        assertEquals(100_000_000L, s.maxNanos());
+        assertTrue(s.p50Nanos() >= 50_000_000L && s.p50Nanos() <= 62_500_000L);
+        assertTrue(s.p99Nanos() >= 99_000_000L && s.p99Nanos() <= 100_000_000L);
+    }
+
+    @Test
+    @DisplayName("Timed futures count failures")
+    void failures() {
+        Timer timer = new Timer();
+        timer.time(() -> CompletableFuture.completedFuture("ok")).join();
+        timer.time(() -> CompletableFuture.failedFuture(new IllegalStateException())).exceptionally(ex -> null).join();
+
+        Timer.Snapshot s = timer.snapshot();
+        assertEquals(2, s.count());
+        assertEquals(1, s.failures());
+    }
+
+    @Test
+    @DisplayName("Timed futures fail with the call's own exception")
+    void unwrappedFailure() {
+        Timer timer = new Timer();
+        AtomicReference<Throwable> seen = new AtomicReference<>();
+        timer.time(() -> CompletableFuture.failedFuture(new IllegalStateException()))
+                .exceptionally(ex -> {
+                    seen.set(ex);
+                    return null;
+                }).join();
+
+        assertInstanceOf(IllegalStateException.class, seen.get());
+    }
+}
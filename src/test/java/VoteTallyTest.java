@@ -0,0 +1,73 @@
+import network.akila.surveyor.service.VoteTally;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class VoteTallyTest {
+
+    @Test
+    @DisplayName("Loads counts once and answers from memory")
+    void loadsOnce() {
+        AtomicInteger loads = new AtomicInteger();
+        VoteTally tally = new VoteTally(id -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(new int[]{2, 5});
+        });
+
+        assertArrayEquals(new int[]{2, 5}, tally.counts(1L).join());
+        assertEquals(5, tally.count(1L, 1).join());
+        assertEquals(0, tally.count(1L, 4).join());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Increments votes cast after the load")
+    void incrementsAfterLoad() {
+        VoteTally tally = new VoteTally(id -> CompletableFuture.completedFuture(new int[]{0, 0, 0}));
+        tally.counts(1L).join();
+
+        tally.increment(1L, 2, System.nanoTime());
+        tally.increment(1L, 2, System.nanoTime());
+
+        assertArrayEquals(new int[]{0, 0, 2}, tally.counts(1L).join());
+    }
+
+    @Test
+    @DisplayName("Reloads when a vote overlaps a pending load")
+    void reloadsOnOverlap() {
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<int[]> pending = new CompletableFuture<>();
+        VoteTally tally = new VoteTally(id -> loads.incrementAndGet() == 1
+                ? pending
+                : CompletableFuture.completedFuture(new int[]{1, 0}));
+
+        CompletableFuture<int[]> first = tally.counts(1L);
+        tally.increment(1L, 0, System.nanoTime());
+        pending.complete(new int[]{1, 0});
+
+        assertArrayEquals(new int[]{1, 0}, first.join());
+        assertArrayEquals(new int[]{1, 0}, tally.counts(1L).join());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Peeks only at loaded counts")
+    void peekDoesNotLoad() {
+        AtomicInteger loads = new AtomicInteger();
+        VoteTally tally = new VoteTally(id -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(new int[]{3});
+        });
+
+        assertNull(tally.peek(1L));
+        assertEquals(0, loads.get());
+        tally.counts(1L).join();
+        assertArrayEquals(new int[]{3}, tally.peek(1L));
+    }
+}